@@ -0,0 +1,100 @@
+package com.ukraine.dc.benchmark;
+
+import com.ukraine.dc.analyzer.FileAnalyzer;
+import com.ukraine.dc.analyzer.FileInformation;
+import com.ukraine.dc.analyzer.SentenceTokenizer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the read, tokenize and count steps of {@link FileAnalyzer} separately and as a whole.
+ * The decoded content is only held by the benchmarks that work on it, see {@link Decoded}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class AnalyzerBenchmark {
+
+    @Param({"1024", "1048576", "104857600", "1073741824"})
+    private long size;
+
+    @Param({"ASCII", "CYRILLIC"})
+    private Corpus.Language language;
+
+    private final FileAnalyzer analyzer = new FileAnalyzer();
+    private Path directory;
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("analyzer-benchmark");
+        path = Corpus.textFile(directory, size, language).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(directory);
+    }
+
+    /**
+     * The content decoded once per trial, so the 1 GB file isn't held while other benchmarks decode it again.
+     */
+    @State(Scope.Benchmark)
+    public static class Decoded {
+        CharSequence content;
+
+        @Setup(Level.Trial)
+        public void setUp(AnalyzerBenchmark benchmark) {
+            content = benchmark.analyzer.readContent(benchmark.path);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            content = null;
+        }
+    }
+
+    @Benchmark
+    public CharSequence readContent() {
+        return analyzer.readContent(path);
+    }
+
+    @Benchmark
+    public int[] processFileContent(Decoded decoded) {
+        return SentenceTokenizer.tokenize(decoded.content);
+    }
+
+    @Benchmark
+    public int countWord(Decoded decoded) {
+        return analyzer.countWord(decoded.content, Corpus.SEARCH_WORD);
+    }
+
+    @Benchmark
+    public List<String> getSentencesWithWord(Decoded decoded) {
+        return analyzer.getSentencesWithWord(decoded.content, Corpus.SEARCH_WORD);
+    }
+
+    @Benchmark
+    public FileInformation analyze() {
+        return analyzer.analyze(path, Corpus.SEARCH_WORD);
+    }
+
+    @Benchmark
+    public FileInformation analyzeStreaming() {
+        return analyzer.analyzeStreaming(path, Corpus.SEARCH_WORD);
+    }
+
+    @Benchmark
+    public FileInformation analyzeLazily() {
+        return analyzer.analyzeLazily(path, Corpus.SEARCH_WORD);
+    }
+
+}
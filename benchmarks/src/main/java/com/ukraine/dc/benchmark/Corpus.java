@@ -0,0 +1,103 @@
+package com.ukraine.dc.benchmark;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Generates deterministic benchmark inputs: text files of a given size and directory trees.
+ */
+public final class Corpus {
+    static final String SEARCH_WORD = "hello";
+
+    private static final String[] ASCII_WORDS = {
+            "hello", "world", "file", "tool", "sentence", "search", "copy", "analyzer", "data", "test"
+    };
+    private static final String[] CYRILLIC_WORDS = {
+            "hello", "\u043f\u0440\u0438\u0432\u0435\u0442", "\u043c\u0438\u0440", "\u0444\u0430\u0439\u043b",
+            "\u0441\u043b\u043e\u0432\u043e", "\u043f\u043e\u0438\u0441\u043a", "\u0434\u0430\u043d\u043d\u044b\u0435",
+            "\u0442\u0435\u043a\u0441\u0442", "\u041a\u0438\u0435\u0432", "\u0447\u0438\u0442\u0430\u0442\u044c"
+    };
+    private static final char[] TERMINATORS = {'.', '.', '.', '!', '?'};
+
+    public enum Language {
+        ASCII(ASCII_WORDS), CYRILLIC(CYRILLIC_WORDS);
+
+        private final String[] words;
+
+        Language(String[] words) {
+            this.words = words;
+        }
+    }
+
+    public enum Shape {
+        /** All files in one directory. */
+        WIDE,
+        /** One file per level of a single chain of nested directories. */
+        DEEP
+    }
+
+    private Corpus() {
+    }
+
+    /**
+     * Writes about {@code size} bytes of UTF-8 sentences; the same arguments always give the same file.
+     */
+    static Path textFile(Path directory, long size, Language language) throws IOException {
+        Path file = directory.resolve(language.name().toLowerCase() + "-" + size + ".txt");
+        Random random = new Random(size);
+        long written = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                Files.newOutputStream(file), StandardCharsets.UTF_8), 1024 * 1024)) {
+            StringBuilder sentence = new StringBuilder();
+            while (written < size) {
+                sentence.setLength(0);
+                int words = 3 + random.nextInt(12);
+                for (int i = 0; i < words; i++) {
+                    String word = language.words[random.nextInt(language.words.length)];
+                    sentence.append(i == 0 ? Character.toUpperCase(word.charAt(0)) + word.substring(1) : word);
+                    sentence.append(i + 1 < words ? (random.nextInt(8) == 0 ? ", " : " ") : "");
+                }
+                sentence.append(TERMINATORS[random.nextInt(TERMINATORS.length)]);
+                sentence.append(random.nextInt(6) == 0 ? '\n' : ' ');
+                byte[] bytes = sentence.toString().getBytes(StandardCharsets.UTF_8);
+                writer.write(sentence.toString());
+                written += bytes.length;
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Creates {@code fileCount} files of {@code fileSize} bytes under {@code root} in the given shape.
+     */
+    static Path tree(Path root, Shape shape, int fileCount, int fileSize) throws IOException {
+        Path tree = Files.createDirectories(root.resolve(shape.name().toLowerCase()));
+        byte[] content = new byte[fileSize];
+        new Random(fileSize).nextBytes(content);
+        Path directory = tree;
+        for (int i = 0; i < fileCount; i++) {
+            if (shape == Shape.DEEP) {
+                directory = Files.createDirectory(directory.resolve("level" + i));
+            }
+            Files.write(directory.resolve("file" + i + ".bin"), content);
+        }
+        return tree;
+    }
+
+    static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(path)) {
+            for (Path entry : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(entry);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.ukraine.dc.benchmark;
+
+import com.ukraine.dc.manager.CopyOptions;
+import com.ukraine.dc.manager.FileManager;
+import com.ukraine.dc.manager.OperationResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures counting, copying and deleting of generated wide and deep trees. Copy and delete
+ * targets are recreated around every invocation, so only the operation itself is timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FileManagerBenchmark {
+
+    @Param({"WIDE", "DEEP"})
+    private Corpus.Shape shape;
+
+    @Param({"200"})
+    private int fileCount;
+
+    @Param({"4096", "1048576"})
+    private int fileSize;
+
+    private Path directory;
+    private Path source;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("manager-benchmark");
+        source = Corpus.tree(directory, shape, fileCount, fileSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(directory);
+    }
+
+    @Benchmark
+    public int countFiles() {
+        return FileManager.countFiles(source.toString());
+    }
+
+    @Benchmark
+    public void copy(CopyTarget target) {
+        FileManager.copy(source.toString(), target.path.toString());
+    }
+
+    @Benchmark
+    public OperationResult parallelCopy(CopyTarget target) {
+        return FileManager.copy(source.toString(), target.path.toString(), new CopyOptions());
+    }
+
+    @Benchmark
+    public void deleteFiles(DeleteTarget target) {
+        FileManager.deleteFiles(target.path.toFile());
+    }
+
+    @State(Scope.Thread)
+    public static class CopyTarget {
+        private Path path;
+
+        @Setup(Level.Invocation)
+        public void setUp(FileManagerBenchmark benchmark) throws IOException {
+            path = Files.createTempDirectory(benchmark.directory, "copy");
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            Corpus.delete(path);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DeleteTarget {
+        private Path path;
+
+        @Setup(Level.Invocation)
+        public void setUp(FileManagerBenchmark benchmark) throws IOException {
+            path = Files.createTempDirectory(benchmark.directory, "delete");
+            FileManager.copy(benchmark.source.toString(), path.toString());
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws IOException {
+            Corpus.delete(path);
+        }
+    }
+
+}
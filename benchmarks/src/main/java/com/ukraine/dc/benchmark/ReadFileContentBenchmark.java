@@ -0,0 +1,49 @@
+package com.ukraine.dc.benchmark;
+
+import com.ukraine.dc.analyzer.FileAnalyzer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link FileAnalyzer#readFileContent(String)}, which decodes the file and copies it
+ * into a String. Both copies of a 1 GB file don't fit the heap, so the sizes stop at 100 MB.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ReadFileContentBenchmark {
+
+    @Param({"1024", "1048576", "104857600"})
+    private long size;
+
+    @Param({"ASCII", "CYRILLIC"})
+    private Corpus.Language language;
+
+    private final FileAnalyzer analyzer = new FileAnalyzer();
+    private Path directory;
+    private String path;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("read-benchmark");
+        path = Corpus.textFile(directory, size, language).toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Corpus.delete(directory);
+    }
+
+    @Benchmark
+    public String readFileContent() {
+        return analyzer.readFileContent(path);
+    }
+
+}
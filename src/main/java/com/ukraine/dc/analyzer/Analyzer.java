@@ -1,5 +1,7 @@
 package com.ukraine.dc.analyzer;
 
+import java.util.Collection;
+
 public abstract class Analyzer {
 
     protected abstract FileInformation analyze(String pathToFile, String searchWord);
@@ -10,6 +12,13 @@ public abstract class Analyzer {
         }
     }
 
+    protected void validateSearchWords(Collection<String> searchWords) {
+        if (searchWords == null || searchWords.isEmpty()) {
+            throw new IllegalArgumentException("The 'words' parameter shouldn't be empty or null.");
+        }
+        searchWords.forEach(this::validateSearchWord);
+    }
+
     protected void validateFilePath(String pathToFile) {
         if (pathToFile == null || pathToFile.trim().isEmpty()) {
             throw new IllegalArgumentException("The 'path' parameter shouldn't be empty or null.");
@@ -0,0 +1,97 @@
+package com.ukraine.dc.analyzer;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static java.lang.String.format;
+
+/**
+ * Recognizes gzip and zip files by their magic bytes and decodes them as a stream of entries,
+ * inflating on the fly so that nothing is held in memory or written to disk.
+ */
+final class CompressedInput {
+    private static final int INFLATE_BUFFER_SIZE = 64 * 1024;
+
+    enum Format {
+        PLAIN, GZIP, ZIP
+    }
+
+    @FunctionalInterface
+    interface EntryReader {
+        void read(String name, Reader reader) throws IOException;
+    }
+
+    private CompressedInput() {
+    }
+
+    static Format detect(Path file) {
+        byte[] magic = new byte[4];
+        int length = 0;
+        try (InputStream stream = Files.newInputStream(file)) {
+            int count;
+            while (length < magic.length && (count = stream.read(magic, length, magic.length - length)) != -1) {
+                length += count;
+            }
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", file));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (length >= 2 && magic[0] == (byte) 0x1F && magic[1] == (byte) 0x8B) {
+            return Format.GZIP;
+        }
+        if (length == 4 && magic[0] == 'P' && magic[1] == 'K'
+                && ((magic[2] == 3 && magic[3] == 4) || (magic[2] == 5 && magic[3] == 6))) {
+            return Format.ZIP;
+        }
+        return Format.PLAIN;
+    }
+
+    /**
+     * Hands every entry to the reader in archive order: the file itself when it is plain, the
+     * uncompressed content of a gzip file, which may hold several members, or each file of a zip.
+     */
+    static void read(Path file, Format format, Charset charset, EntryReader entries) {
+        try (InputStream stream = Files.newInputStream(file)) {
+            switch (format) {
+                case GZIP:
+                    entries.read(entryName(file), reader(new GZIPInputStream(stream, INFLATE_BUFFER_SIZE), charset));
+                    break;
+                case ZIP:
+                    ZipInputStream zip = new ZipInputStream(new BufferedInputStream(stream, INFLATE_BUFFER_SIZE));
+                    ZipEntry entry;
+                    while ((entry = zip.getNextEntry()) != null) {
+                        if (!entry.isDirectory()) {
+                            entries.read(entry.getName(), reader(zip, charset));
+                        }
+                    }
+                    break;
+                default:
+                    entries.read(file.getFileName().toString(), reader(stream, charset));
+            }
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", file));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Reader reader(InputStream stream, Charset charset) {
+        return new InputStreamReader(stream, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+    }
+
+    private static String entryName(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(".gz") ? name.substring(0, name.length() - 3) : name;
+    }
+
+}
@@ -0,0 +1,191 @@
+package com.ukraine.dc.analyzer;
+
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Single-pass scanner that extracts valid sentences containing the search word and counts
+ * the word occurrences at the same time. It accepts the content in chunks, so memory is
+ * bounded by the longest sentence, and it allocates only for the sentences it keeps.
+ * Fed through {@link #accept(char, long, int)} it keeps byte ranges instead of sentence text.
+ */
+class ContentScanner implements OffsetDecoder.CharSink {
+    private final WordMatcher matcher;
+    private final boolean collectSentences;
+    private final StringBuilder sentence = new StringBuilder();
+    private final List<String> sentences = new ArrayList<>();
+
+    private int wordState;
+    private int sentenceState;
+    private boolean sentenceHasWord;
+    private int wordCount;
+    private boolean pendingCarriageReturn;
+    private boolean empty = true;
+    private boolean recordOffsets;
+    private long sentenceStart = -1;
+    private long charEnd;
+    private long[] sentenceStarts = new long[16];
+    private int[] sentenceLengths = new int[16];
+    private int sentenceCount;
+
+    ContentScanner(String searchWord) {
+        this(new WordMatcher(searchWord), true);
+    }
+
+    ContentScanner(WordMatcher matcher, boolean collectSentences) {
+        this.matcher = matcher;
+        this.collectSentences = collectSentences;
+    }
+
+    void accept(char[] chars, int offset, int length) {
+        if (length > 0) {
+            empty = false;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            scan(chars[i]);
+        }
+    }
+
+    void accept(CharSequence content) {
+        if (content.length() > 0) {
+            empty = false;
+        }
+        for (int i = 0; i < content.length(); i++) {
+            scan(content.charAt(i));
+        }
+    }
+
+    @Override
+    public void accept(char c, long offset, int length) {
+        recordOffsets = true;
+        empty = false;
+        if (sentenceStart < 0) {
+            sentenceStart = offset;
+        }
+        charEnd = offset + length;
+        scan(c);
+    }
+
+    FileInformation finish() {
+        if (empty) {
+            throw new RuntimeException("The file content is empty.");
+        }
+        return complete();
+    }
+
+    /**
+     * Returns the result for the scanned part of the content, which may be empty.
+     */
+    FileInformation complete() {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            matchWord('\r');
+        }
+        return new FileInformation(wordCount, sentences);
+    }
+
+    int wordCount() {
+        return wordCount;
+    }
+
+    /**
+     * Returns the sentences completed since the previous call and forgets them, for callers
+     * that keep feeding the scanner.
+     */
+    List<String> takeSentences() {
+        List<String> taken = new ArrayList<>(sentences);
+        sentences.clear();
+        return taken;
+    }
+
+    /**
+     * Returns a result whose sentences are read back from {@code file} by the recorded byte ranges,
+     * as long as the file keeps the size and modification time it had before it was scanned.
+     */
+    FileInformation finish(Path file, BasicFileAttributes attributes, Charset charset) {
+        if (empty) {
+            throw new RuntimeException("The file content is empty.");
+        }
+        complete();
+        return new FileInformation(wordCount, new OffsetSentences(file, charset,
+                attributes.size(), attributes.lastModifiedTime().toMillis(),
+                Arrays.copyOf(sentenceStarts, sentenceCount), Arrays.copyOf(sentenceLengths, sentenceCount)));
+    }
+
+    private void scan(char c) {
+        if (collectSentences) {
+            scanSentence(c);
+        }
+        scanWord(c);
+    }
+
+    private void scanSentence(char c) {
+        boolean terminator = SentenceTokenizer.isTerminator(c);
+        if (!terminator && !SentenceTokenizer.isSentenceChar(c)) {
+            resetSentence();
+            return;
+        }
+        if (!recordOffsets) {
+            sentence.append(c);
+        }
+        if (!sentenceHasWord) {
+            sentenceState = matcher.advance(sentenceState, c);
+            sentenceHasWord = matcher.isMatch(sentenceState);
+        }
+        if (terminator) {
+            if (sentenceHasWord) {
+                keepSentence();
+            }
+            resetSentence();
+        }
+    }
+
+    private void keepSentence() {
+        if (!recordOffsets) {
+            sentences.add(sentence.toString());
+            return;
+        }
+        if (sentenceCount == sentenceStarts.length) {
+            sentenceStarts = Arrays.copyOf(sentenceStarts, sentenceCount * 2);
+            sentenceLengths = Arrays.copyOf(sentenceLengths, sentenceCount * 2);
+        }
+        sentenceStarts[sentenceCount] = sentenceStart;
+        sentenceLengths[sentenceCount++] = (int) (charEnd - sentenceStart);
+    }
+
+    private void resetSentence() {
+        sentenceStart = -1;
+        sentence.setLength(0);
+        sentenceState = 0;
+        sentenceHasWord = false;
+    }
+
+    private void scanWord(char c) {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            if (c == '\n') {
+                wordState = 0;
+                return;
+            }
+            matchWord('\r');
+        }
+        if (c == '\r') {
+            pendingCarriageReturn = true;
+        } else {
+            matchWord(c);
+        }
+    }
+
+    private void matchWord(char c) {
+        wordState = matcher.advance(wordState, c);
+        if (matcher.isMatch(wordState)) {
+            wordCount++;
+            wordState = 0;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.ukraine.dc.analyzer;
+
+import com.ukraine.dc.manager.FileManager;
+
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * Runs a {@link FileAnalyzer} over every file of a tree. The tree is walked with the
+ * {@link FileManager} traversal on the calling thread and the files are analyzed on the
+ * given executor, e.g. a fixed pool or, on newer JDKs, a virtual-thread-per-task executor.
+ */
+public class DirectoryAnalyzer implements AutoCloseable {
+    private static final int QUEUED_FILES_PER_THREAD = 64;
+
+    private final FileAnalyzer analyzer;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor;
+    private final int maxQueuedFiles;
+
+    public DirectoryAnalyzer(int parallelism) {
+        this(new FileAnalyzer(), Executors.newFixedThreadPool(parallelism), parallelism * QUEUED_FILES_PER_THREAD, true);
+    }
+
+    /**
+     * Uses the caller's executor, which is not shut down by {@link #close()}; at most
+     * {@code maxQueuedFiles} files are submitted but not yet analyzed at any time.
+     */
+    public DirectoryAnalyzer(FileAnalyzer analyzer, Executor executor, int maxQueuedFiles) {
+        this(analyzer, executor, maxQueuedFiles, false);
+    }
+
+    private DirectoryAnalyzer(FileAnalyzer analyzer, Executor executor, int maxQueuedFiles, boolean ownsExecutor) {
+        if (maxQueuedFiles < 1) {
+            throw new IllegalArgumentException("The queue size should be positive.");
+        }
+        this.analyzer = analyzer;
+        this.executor = executor;
+        this.ownedExecutor = ownsExecutor ? (ExecutorService) executor : null;
+        this.maxQueuedFiles = maxQueuedFiles;
+    }
+
+    /**
+     * Analyzes every regular file under the directory. Per-file results are streamed to the
+     * listener as soon as they are ready, from the executor's threads; failures are collected.
+     */
+    public DirectoryInformation analyze(String directory, String searchWord,
+                                        BiConsumer<Path, FileInformation> listener) {
+        analyzer.validateFilePath(directory);
+        analyzer.validateSearchWord(searchWord);
+        AtomicLong totalWordCount = new AtomicLong();
+        AtomicInteger analyzedFiles = new AtomicInteger();
+        AtomicInteger matchingFiles = new AtomicInteger();
+        Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+
+        forEachFile(directory, failures, (file, attributes) -> {
+            FileInformation information = attributes.size() == 0
+                    ? new FileInformation(0, new ArrayList<>())
+                    : analyzer.analyze(file.toString(), searchWord);
+            totalWordCount.addAndGet(information.getWordCount());
+            analyzedFiles.incrementAndGet();
+            if (information.getWordCount() > 0) {
+                matchingFiles.incrementAndGet();
+            }
+            listener.accept(file, information);
+        });
+        return new DirectoryInformation(totalWordCount.get(), analyzedFiles.get(), matchingFiles.get(), failures);
+    }
+
+    /**
+     * Counts the terms of every regular file under the directory, each file into its own table
+     * on the executor, and merges the tables. Since the totals would be incomplete, it throws
+     * once all files are done if any of them failed, with every failure attached.
+     */
+    public TermFrequencies termFrequencies(String directory) {
+        analyzer.validateFilePath(directory);
+        TermFrequencies total = new TermFrequencies();
+        Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+        forEachFile(directory, failures, (file, attributes) -> {
+            if (attributes.size() == 0) {
+                return;
+            }
+            TermFrequencies frequencies = analyzer.termFrequencies(file.toString());
+            synchronized (total) {
+                total.merge(frequencies);
+            }
+        });
+        if (!failures.isEmpty()) {
+            Map.Entry<String, Exception> first = failures.entrySet().iterator().next();
+            RuntimeException exception = new RuntimeException(format("Failed to count the terms of '%s' (%d files failed).",
+                    first.getKey(), failures.size()), first.getValue());
+            failures.values().stream().skip(1).forEach(exception::addSuppressed);
+            throw exception;
+        }
+        return total;
+    }
+
+    /**
+     * Walks the tree on the calling thread, runs the work for every file on the executor with
+     * bounded queueing and returns once all of it has finished.
+     */
+    private void forEachFile(String directory, Map<String, Exception> failures,
+                             BiConsumer<Path, BasicFileAttributes> work) {
+        Semaphore permits = new Semaphore(maxQueuedFiles);
+        Phaser running = new Phaser(1);
+        FileManager.walkFiles(directory, (file, attributes) -> {
+            permits.acquireUninterruptibly();
+            running.register();
+            Runnable task = () -> {
+                try {
+                    work.accept(file, attributes);
+                } catch (RuntimeException e) {
+                    failures.put(file.toString(), e);
+                } finally {
+                    permits.release();
+                    running.arriveAndDeregister();
+                }
+            };
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                failures.put(file.toString(), e);
+                permits.release();
+                running.arriveAndDeregister();
+            }
+        });
+        running.arriveAndAwaitAdvance();
+    }
+
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+        }
+    }
+
+}
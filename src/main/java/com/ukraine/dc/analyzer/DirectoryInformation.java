@@ -0,0 +1,40 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Aggregated result of analyzing every file of a directory tree.
+ */
+public class DirectoryInformation {
+    private final long totalWordCount;
+    private final int analyzedFiles;
+    private final int matchingFiles;
+    private final Map<String, Exception> failures;
+
+    public DirectoryInformation(long totalWordCount, int analyzedFiles, int matchingFiles, Map<String, Exception> failures) {
+        this.totalWordCount = totalWordCount;
+        this.analyzedFiles = analyzedFiles;
+        this.matchingFiles = matchingFiles;
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public long getTotalWordCount() {
+        return totalWordCount;
+    }
+
+    public int getAnalyzedFiles() {
+        return analyzedFiles;
+    }
+
+    /**
+     * The number of files containing the word at least once.
+     */
+    public int getMatchingFiles() {
+        return matchingFiles;
+    }
+
+    public Map<String, Exception> getFailures() {
+        return failures;
+    }
+}
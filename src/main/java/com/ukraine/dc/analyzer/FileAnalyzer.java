@@ -1,93 +1,427 @@
 package com.ukraine.dc.analyzer;
 
+import com.ukraine.dc.daemon.AnalyzerDaemon;
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.FileProgress;
+import com.ukraine.dc.operation.OperationListener;
+import com.ukraine.dc.operation.Phase;
+import com.ukraine.dc.operation.PhaseTimer;
+
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.BiFunction;
 
 import static java.lang.String.format;
 
 public class FileAnalyzer extends Analyzer {
-    private static final Pattern REGEX_FOR_VALID_SENTENCES =
-            Pattern.compile("(?:([A-Za-z\\u0401\\u0451\\u0410-\\u044f0-9\\s\\\\,]|))+(?:(\\.|\\?|!))");
+    private static final int STREAM_BUFFER_SIZE = 8192;
+
+    private final Charset charset;
+    private final SentenceCache cache;
+    private final OperationListener listener;
+
+    public FileAnalyzer() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    public FileAnalyzer(Charset charset) {
+        this(charset, null);
+    }
+
+    public FileAnalyzer(SentenceCache cache) {
+        this(StandardCharsets.UTF_8, cache);
+    }
+
+    /**
+     * Creates an analyzer that keeps the sentence segmentation of analyzed files in the given cache.
+     */
+    public FileAnalyzer(Charset charset, SentenceCache cache) {
+        this(charset, cache, OperationListener.NONE);
+    }
 
+    /**
+     * Creates an analyzer that reports every analyzed file and the time of its phases to the listener.
+     */
+    public FileAnalyzer(Charset charset, SentenceCache cache, OperationListener listener) {
+        this.charset = charset;
+        this.cache = cache;
+        this.listener = listener;
+    }
+
+    /**
+     * Prints the analysis of {@code args[0]} for the word {@code args[1]}; {@code --daemon} starts
+     * an {@link AnalyzerDaemon} that answers requests from one warm JVM instead.
+     */
     public static void main(String[] args) {
+        if (args.length > 0 && "--daemon".equals(args[0])) {
+            AnalyzerDaemon.run(args);
+            return;
+        }
+        if (args.length != 2) {
+            System.err.println("Usage: FileAnalyzer <file> <word> | --daemon [--port N --token-file FILE | --input FILE]");
+            System.exit(2);
+        }
         FileAnalyzer analyzer = new FileAnalyzer();
-        analyzer.analyze(args[0], args[1]);
+        FileInformation information = analyzer.analyze(args[0], args[1]);
+        System.out.println(information.getWordCount());
+        System.out.println(information.printMessages());
     }
 
+    /**
+     * Analyzes the file; gzip and zip files are recognized by their magic bytes and inflated
+     * while they are scanned, with the results of all zip entries merged.
+     */
     @Override
     public FileInformation analyze(String pathToFile, String searchWord) {
         validateFilePath(pathToFile);
         validateSearchWord(searchWord);
-        String fileContent = readFileContent(pathToFile);
-        List<String> validSentencesWithWord = getSentencesWithWord(fileContent, searchWord);
-        int wordCount = countWord(fileContent, searchWord);
-        return new FileInformation(wordCount, validSentencesWithWord);
+        return observed(pathToFile, (timer, progress) -> {
+            Path path = Paths.get(pathToFile);
+            CompressedInput.Format format = CompressedInput.detect(path);
+            FileInformation information;
+            if (format != CompressedInput.Format.PLAIN) {
+                information = analyzeCompressed(path, format, searchWord, CancellationToken.NONE);
+            } else if (cache != null) {
+                information = getSegmentation(pathToFile, timer).analyze(new WordMatcher(searchWord));
+            } else {
+                CharSequence content = readContent(pathToFile);
+                timer.complete(Phase.READ);
+                ContentScanner scanner = new ContentScanner(searchWord);
+                scanner.accept(content);
+                information = scanner.finish();
+            }
+            timer.complete(Phase.COUNT);
+            return information;
+        });
+    }
+
+    /**
+     * Analyzes all the words in a single pass over the file, the result is keyed by the given words.
+     */
+    public Map<String, FileInformation> analyze(String pathToFile, Collection<String> searchWords) {
+        validateFilePath(pathToFile);
+        validateSearchWords(searchWords);
+        List<String> words = new ArrayList<>(searchWords);
+        return observed(pathToFile, (timer, progress) -> {
+            List<FileInformation> results;
+            CompressedInput.Format format = CompressedInput.detect(Paths.get(pathToFile));
+            if (format == CompressedInput.Format.PLAIN) {
+                MultiWordScanner scanner = new MultiWordScanner(new MultiWordMatcher(words));
+                new MappedFileReader(pathToFile, charset, progress::read).read(scanner::accept);
+                results = scanner.finish();
+            } else {
+                results = analyzeCompressedWords(Paths.get(pathToFile), format, words);
+            }
+            timer.complete(Phase.COUNT);
+            Map<String, FileInformation> informationByWord = new LinkedHashMap<>();
+            for (int i = 0; i < words.size(); i++) {
+                informationByWord.put(words.get(i), results.get(i));
+            }
+            return informationByWord;
+        });
+    }
+
+    public FileInformation analyzeStreaming(String pathToFile, String searchWord) {
+        return analyzeStreaming(pathToFile, searchWord, CancellationToken.NONE);
+    }
+
+    /**
+     * Analyzes the file chunk by chunk, checking the token before every chunk.
+     */
+    public FileInformation analyzeStreaming(String pathToFile, String searchWord, CancellationToken token) {
+        validateFilePath(pathToFile);
+        validateSearchWord(searchWord);
+        return observed(pathToFile, (timer, progress) -> {
+            Path path = Paths.get(pathToFile);
+            CompressedInput.Format format = CompressedInput.detect(path);
+            FileInformation information;
+            if (format == CompressedInput.Format.PLAIN) {
+                ContentScanner scanner = new ContentScanner(searchWord);
+                new MappedFileReader(pathToFile, charset, progress::read).read((chars, offset, length) -> {
+                    token.throwIfCancelled();
+                    scanner.accept(chars, offset, length);
+                });
+                information = scanner.finish();
+            } else {
+                information = analyzeCompressed(path, format, searchWord, token);
+            }
+            timer.complete(Phase.COUNT);
+            return information;
+        });
+    }
+
+    /**
+     * Analyzes the file in one pass but keeps only the byte ranges of the matching sentences,
+     * which are read back from the file when the result is iterated. Charsets without fixed
+     * byte offsets fall back to {@link #analyzeStreaming(String, String)}, compressed files
+     * keep their sentences in memory.
+     */
+    public FileInformation analyzeLazily(String pathToFile, String searchWord) {
+        validateFilePath(pathToFile);
+        validateSearchWord(searchWord);
+        if (!OffsetDecoder.isSupported(charset)) {
+            return analyzeStreaming(pathToFile, searchWord);
+        }
+        Path path = Paths.get(pathToFile);
+        return observed(pathToFile, (timer, progress) -> {
+            CompressedInput.Format compressed = CompressedInput.detect(path);
+            if (compressed != CompressedInput.Format.PLAIN) {
+                FileInformation information = analyzeCompressed(path, compressed, searchWord, CancellationToken.NONE);
+                timer.complete(Phase.COUNT);
+                return information;
+            }
+            ContentScanner scanner = new ContentScanner(searchWord);
+            BasicFileAttributes attributes;
+            try (InputStream stream = reportingStream(Files.newInputStream(path), progress)) {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                new OffsetDecoder(charset, scanner).decode(stream);
+            } catch (NoSuchFileException e) {
+                throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            FileInformation information = scanner.finish(path, attributes, charset);
+            timer.complete(Phase.COUNT);
+            return information;
+        });
+    }
+
+    /**
+     * Analyzes every file of a zip archive separately, keyed by the entry name in archive order.
+     * A gzip or plain file gives a single entry named after the file.
+     */
+    public Map<String, FileInformation> analyzeEntries(String pathToFile, String searchWord) {
+        validateFilePath(pathToFile);
+        validateSearchWord(searchWord);
+        return observed(pathToFile, (timer, progress) -> {
+            Path path = Paths.get(pathToFile);
+            Map<String, FileInformation> entries = analyzeEntries(path, CompressedInput.detect(path),
+                    searchWord, CancellationToken.NONE);
+            timer.complete(Phase.COUNT);
+            return entries;
+        });
+    }
+
+    /**
+     * Tokenizes the file once and returns the exact frequency of every term in it.
+     */
+    public TermFrequencies termFrequencies(String pathToFile) {
+        return countTerms(pathToFile, new TermFrequencies());
+    }
+
+    /**
+     * Adds the terms of the file to the histogram and returns it, so one histogram, exact or
+     * a {@link TermSketch}, can collect a whole tree. Compressed files are counted entry by entry.
+     */
+    public <T extends TermHistogram> T countTerms(String pathToFile, T histogram) {
+        validateFilePath(pathToFile);
+        return observed(pathToFile, (timer, progress) -> {
+            Path path = Paths.get(pathToFile);
+            CompressedInput.Format format = CompressedInput.detect(path);
+            TermTokenizer tokenizer = new TermTokenizer(histogram);
+            if (format == CompressedInput.Format.PLAIN) {
+                new MappedFileReader(pathToFile, charset, progress::read).read(tokenizer);
+            } else {
+                char[] buffer = new char[STREAM_BUFFER_SIZE];
+                CompressedInput.read(path, format, charset, (name, reader) -> {
+                    int count;
+                    while ((count = reader.read(buffer)) != -1) {
+                        tokenizer.accept(buffer, 0, count);
+                    }
+                    tokenizer.flush();
+                });
+            }
+            tokenizer.flush();
+            timer.complete(Phase.COUNT);
+            return histogram;
+        });
+    }
+
+    public FileInformation analyze(Reader reader, String searchWord) {
+        validateSearchWord(searchWord);
+        ContentScanner scanner = new ContentScanner(searchWord);
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        try {
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                scanner.accept(buffer, 0, count);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return scanner.finish();
     }
 
-    public List<String> getSentencesWithWord(String fileContent, String word) {
+    public List<String> getSentencesWithWord(CharSequence fileContent, String word) {
         validateSearchWord(word);
-        return processFileContent(fileContent).stream()
-                .filter(s -> s.toLowerCase().contains(word.toLowerCase()))
-                .collect(Collectors.toList());
+        WordMatcher matcher = new WordMatcher(word);
+        int[] bounds = processFileContent(fileContent);
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (matcher.containedIn(fileContent, bounds[i], bounds[i + 1])) {
+                sentences.add(fileContent.subSequence(bounds[i], bounds[i + 1]).toString());
+            }
+        }
+        return sentences;
     }
 
-    public int countWord(String fileContent, String word) {
+    public int countWord(CharSequence fileContent, String word) {
         validateSearchWord(word);
-        return countWordOccurrences(fileContent, word);
+        ContentScanner scanner = new ContentScanner(new WordMatcher(word), false);
+        scanner.accept(fileContent);
+        return scanner.complete().getWordCount();
     }
 
     public String readFileContent(String pathToFile) {
+        return readContent(pathToFile).toString();
+    }
+
+    public CharSequence readContent(String pathToFile) {
         validateFilePath(pathToFile);
-        try {
-            return readFileContent(new FileInputStream(pathToFile));
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+        return new MappedFileReader(pathToFile, charset).read();
+    }
+
+    private FileInformation analyzeCompressed(Path path, CompressedInput.Format format, String searchWord,
+                                              CancellationToken token) {
+        FileInformation information = null;
+        for (FileInformation entry : analyzeEntries(path, format, searchWord, token).values()) {
+            information = information == null ? entry : information.merge(entry);
         }
+        return information;
     }
 
-    private String readFileContent(InputStream inputStream) {
-        StringBuilder builder = new StringBuilder();
+    /**
+     * Scans each entry with its own scanner, so sentences never continue across entries.
+     * Fails like a plain file when all entries together are empty.
+     */
+    private Map<String, FileInformation> analyzeEntries(Path path, CompressedInput.Format format, String searchWord,
+                                                        CancellationToken token) {
+        Map<String, FileInformation> entries = new LinkedHashMap<>();
+        boolean[] empty = {true};
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        CompressedInput.read(path, format, charset, (name, reader) -> {
+            ContentScanner scanner = new ContentScanner(searchWord);
+            int count;
+            while ((count = reader.read(buffer)) != -1) {
+                token.throwIfCancelled();
+                empty[0] &= count == 0;
+                scanner.accept(buffer, 0, count);
+            }
+            entries.put(name, scanner.complete());
+        });
+        if (empty[0]) {
+            throw new RuntimeException("The file content is empty.");
+        }
+        return entries;
+    }
 
-        try (InputStream stream = new BufferedInputStream(inputStream)) {
+    /**
+     * Scans each entry like {@link #analyzeEntries(Path, CompressedInput.Format, String, CancellationToken)},
+     * empty entries included, and merges them per word.
+     */
+    private List<FileInformation> analyzeCompressedWords(Path path, CompressedInput.Format format, List<String> words) {
+        MultiWordMatcher matcher = new MultiWordMatcher(words);
+        List<FileInformation> results = new ArrayList<>();
+        boolean[] empty = {true};
+        char[] buffer = new char[STREAM_BUFFER_SIZE];
+        CompressedInput.read(path, format, charset, (name, reader) -> {
+            MultiWordScanner scanner = new MultiWordScanner(matcher);
             int count;
-            byte[] buffer = new byte[64];
-            while ((count = stream.read(buffer)) != -1) {
-                builder.append(new String(buffer, 0, count));
+            while ((count = reader.read(buffer)) != -1) {
+                empty[0] &= count == 0;
+                scanner.accept(buffer, 0, count);
+            }
+            List<FileInformation> entry = scanner.complete();
+            if (results.isEmpty()) {
+                results.addAll(entry);
+            } else {
+                for (int i = 0; i < entry.size(); i++) {
+                    results.set(i, results.get(i).merge(entry.get(i)));
+                }
             }
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
+        });
+        if (empty[0]) {
+            throw new RuntimeException("The file content is empty.");
         }
+        return results;
+    }
 
-        return builder.toString();
+    /**
+     * Runs the analysis of one file, which reports the bytes it reads chunk by chunk; the bytes
+     * it didn't report, such as cached or inflated content, are reported once it completes.
+     */
+    private <T> T observed(String pathToFile, BiFunction<PhaseTimer, FileProgress, T> analysis) {
+        if (listener == OperationListener.NONE) {
+            return analysis.apply(new PhaseTimer(listener), FileProgress.NONE);
+        }
+        Path path = Paths.get(pathToFile);
+        long size = path.toFile().length();
+        listener.fileStarted(path, size);
+        try {
+            FileProgress progress = new FileProgress(listener);
+            T result = analysis.apply(new PhaseTimer(listener), progress);
+            progress.complete(size, 0);
+            listener.fileCompleted(path, size);
+            return result;
+        } catch (RuntimeException e) {
+            listener.fileFailed(path, e);
+            throw e;
+        }
     }
 
-    private List<String> processFileContent(String fileContent) {
-        if (!fileContent.isEmpty()) {
-            Matcher matcher = REGEX_FOR_VALID_SENTENCES.matcher(fileContent);
-            List<String> sentences = new ArrayList<>();
-            while (matcher.find()) {
-                sentences.add(matcher.group());
-            }
-            return sentences;
+    private static InputStream reportingStream(InputStream stream, FileProgress progress) {
+        if (progress == FileProgress.NONE) {
+            return stream;
         }
-        throw new RuntimeException("The file content is empty.");
+        return new FilterInputStream(stream) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int count = super.read(buffer, offset, length);
+                progress.read(count);
+                return count;
+            }
+        };
     }
 
-    private int countWordOccurrences(String fileContent, String word) {
-        int counter = 0;
-        word = word.toLowerCase();
-        for (String sentence : fileContent.split("\r\n")) {
-            sentence = sentence.toLowerCase();
-            while (sentence.contains(word)) {
-                sentence = sentence.substring(sentence.indexOf(word) + word.length());
-                counter++;
+    private SentenceCache.Segmentation getSegmentation(String pathToFile, PhaseTimer timer) {
+        Path path = Paths.get(pathToFile).toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        long modified = attributes.lastModifiedTime().toMillis();
+        SentenceCache.Segmentation segmentation = cache.get(path.toString(), attributes.size(), modified);
+        if (segmentation == null) {
+            CharSequence content = readContent(pathToFile);
+            if (content instanceof ByteCharSequence) {
+                // the cache outlives the mapping: a truncated file would fault on access and an
+                // in-place rewrite would change the bytes under the cached sentence bounds
+                content = content.toString();
             }
+            timer.complete(Phase.READ);
+            segmentation = new SentenceCache.Segmentation(content, processFileContent(content));
+            timer.complete(Phase.TOKENIZE);
+            cache.put(path.toString(), attributes.size(), modified, segmentation);
         }
-        return counter;
+        return segmentation;
+    }
+
+    private int[] processFileContent(CharSequence fileContent) {
+        if (fileContent.length() != 0) {
+            return SentenceTokenizer.tokenize(fileContent);
+        }
+        throw new RuntimeException("The file content is empty.");
     }
 
 }
@@ -0,0 +1,174 @@
+package com.ukraine.dc.analyzer;
+
+import com.ukraine.dc.operation.CancellationToken;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * Follows a growing file, like {@code tail -F}, and analyzes only the bytes appended since the
+ * previous poll. The scanner and decoder state survive between polls, so a sentence or a
+ * multi-byte character split by a poll is completed by the next one. When the file shrinks or
+ * is replaced by another file under the same path, it is read again from the start.
+ */
+public class FileFollower {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final Path path;
+    private final String searchWord;
+    private final Charset charset;
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+
+    private CharsetDecoder decoder;
+    private ContentScanner scanner;
+    private Object fileKey;
+    private long offset;
+    private int previousCount;
+    private int resets;
+
+    public FileFollower(String pathToFile, String searchWord) {
+        this(pathToFile, searchWord, StandardCharsets.UTF_8);
+    }
+
+    public FileFollower(String pathToFile, String searchWord, Charset charset) {
+        if (pathToFile == null || pathToFile.trim().isEmpty()) {
+            throw new IllegalArgumentException("The 'path' parameter shouldn't be empty or null.");
+        }
+        if (searchWord == null || searchWord.trim().isEmpty()) {
+            throw new IllegalArgumentException("The 'word' parameter shouldn't be empty or null.");
+        }
+        this.path = Paths.get(pathToFile);
+        this.searchWord = searchWord;
+        this.charset = charset;
+        restart();
+    }
+
+    /**
+     * Reads what was appended since the last poll. The result holds the running word count of
+     * the followed file and only the matching sentences completed by this poll. A missing file,
+     * for example in the middle of a rotation, gives no new sentences.
+     */
+    public synchronized FileInformation poll() {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return new FileInformation(getWordCount(), Collections.emptyList());
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (offset > 0 && (attributes.size() < offset || rotated(attributes.fileKey()))) {
+            previousCount += scanner.complete().getWordCount();
+            resets++;
+            restart();
+        }
+        fileKey = attributes.fileKey();
+        if (attributes.size() > offset) {
+            readAppended();
+        }
+        return new FileInformation(getWordCount(), scanner.takeSentences());
+    }
+
+    /**
+     * Polls at the given interval until the token is cancelled and hands every poll that found
+     * new bytes to the consumer; cancellation ends the loop without an exception.
+     */
+    public void follow(Duration interval, CancellationToken token, Consumer<FileInformation> consumer) {
+        while (!token.isCancelled()) {
+            long before = offset;
+            int resetsBefore = resets;
+            FileInformation information = poll();
+            if (offset != before || resets != resetsBefore) {
+                consumer.accept(information);
+            }
+            try {
+                Thread.sleep(interval.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public synchronized int getWordCount() {
+        return previousCount + scanner.wordCount();
+    }
+
+    /**
+     * Returns the number of bytes of the current file that were analyzed.
+     */
+    public synchronized long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns how many times truncation or rotation made the follower start over.
+     */
+    public synchronized int getResetCount() {
+        return resets;
+    }
+
+    private boolean rotated(Object currentKey) {
+        return fileKey != null && currentKey != null && !Objects.equals(fileKey, currentKey);
+    }
+
+    private void restart() {
+        decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        scanner = new ContentScanner(searchWord);
+        bytes.clear();
+        offset = 0;
+    }
+
+    private void readAppended() {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int count;
+            while ((count = channel.read(bytes, offset)) > 0) {
+                offset += count;
+                bytes.flip();
+                decode();
+                bytes.compact();
+            }
+        } catch (NoSuchFileException e) {
+            // rotated away between the stat and the open, the next poll picks up the new file
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decodes the buffered bytes without ending the input, so an incomplete character stays
+     * in the byte buffer until the rest of it is appended.
+     */
+    private void decode() throws CharacterCodingException {
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, false);
+            chars.flip();
+            scanner.accept(chars.array(), chars.position(), chars.remaining());
+            chars.clear();
+            if (result.isUnderflow()) {
+                return;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+        }
+    }
+
+}
@@ -1,30 +1,135 @@
 package com.ukraine.dc.analyzer;
 
-import java.util.List;
-import java.util.StringJoiner;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * The word count and the sentences with the word. Sentences are either held in memory or,
+ * for results built from byte offsets, read from the file page by page when they are used.
+ */
+public class FileInformation implements Iterable<String> {
+    static final int PAGE_SIZE = 256;
 
-public class FileInformation {
     private int wordCount;
     private List<String> sentences;
+    private final OffsetSentences offsetSentences;
 
     public FileInformation(int wordCount, List<String> sentences) {
         this.wordCount = wordCount;
         this.sentences = sentences;
+        this.offsetSentences = null;
+    }
+
+    FileInformation(int wordCount, OffsetSentences offsetSentences) {
+        this.wordCount = wordCount;
+        this.offsetSentences = offsetSentences;
     }
 
     public String printMessages() {
-        StringJoiner joiner = new StringJoiner("\n", "[", "]");
-        for (String sentence : sentences) {
-            joiner.add(sentence);
+        StringBuilder builder = new StringBuilder();
+        printMessages(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Writes the sentences in the {@link #printMessages()} format without collecting them first.
+     */
+    public void printMessages(Appendable out) {
+        try {
+            out.append('[');
+            boolean first = true;
+            for (String sentence : this) {
+                if (!first) {
+                    out.append('\n');
+                }
+                out.append(sentence);
+                first = false;
+            }
+            out.append(']');
+        } catch (IOException e) {
+            throw new RuntimeException(e);
         }
-        return joiner.toString();
+    }
+
+    public FileInformation merge(FileInformation other) {
+        List<String> merged = new ArrayList<>(getSentenceCount() + other.getSentenceCount());
+        merged.addAll(getSentences());
+        merged.addAll(other.getSentences());
+        return new FileInformation(wordCount + other.wordCount, merged);
     }
 
     public int getWordCount() {
         return wordCount;
     }
 
+    /**
+     * Returns all sentences; for an offset-backed result they are read from the file on every call.
+     */
     public List<String> getSentences() {
+        if (offsetSentences != null) {
+            return offsetSentences.read(0, offsetSentences.size());
+        }
         return sentences;
     }
+
+    public int getSentenceCount() {
+        return offsetSentences != null ? offsetSentences.size() : sentences.size();
+    }
+
+    /**
+     * Returns one page of sentences; pages past the end are empty.
+     */
+    public List<String> getSentences(int page, int pageSize) {
+        if (page < 0 || pageSize <= 0) {
+            throw new IllegalArgumentException("The page should be non-negative and the page size positive.");
+        }
+        int count = getSentenceCount();
+        int from = (int) Math.min((long) page * pageSize, count);
+        int to = (int) Math.min((long) from + pageSize, count);
+        if (offsetSentences != null) {
+            return offsetSentences.read(from, to);
+        }
+        return Collections.unmodifiableList(sentences.subList(from, to));
+    }
+
+    public boolean isLazy() {
+        return offsetSentences != null;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        if (offsetSentences == null) {
+            return Collections.unmodifiableList(sentences).iterator();
+        }
+        return new Iterator<String>() {
+            private List<String> page = Collections.emptyList();
+            private int pageStart;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return pageStart + index < offsetSentences.size();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                if (index == page.size()) {
+                    pageStart += page.size();
+                    index = 0;
+                    page = offsetSentences.read(pageStart, Math.min(pageStart + PAGE_SIZE, offsetSentences.size()));
+                }
+                return page.get(index++);
+            }
+        };
+    }
+
+    public Stream<String> sentences() {
+        return StreamSupport.stream(Spliterators.spliterator(iterator(), getSentenceCount(),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
 }
@@ -0,0 +1,541 @@
+package com.ukraine.dc.analyzer;
+
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.lang.String.format;
+
+/**
+ * On-disk inverted index of a directory tree: term -> file -> occurrences and sentence ids,
+ * plus the byte offsets of every valid sentence per file.
+ * <p>
+ * Terms are lower-cased runs of the letters and digits accepted in sentences, so a query made
+ * of such characters is answered from the index alone: its occurrences are counted inside the
+ * terms that contain it and the sentence text is read back through the stored offsets.
+ * Other queries fall back to scanning the indexed files.
+ * <p>
+ * Each file is recorded with the size and modification time it had when it was indexed. A query
+ * first reindexes the files whose size or modification time changed since then, so offsets are
+ * never read from a different version of a file; new files are only added by {@link #update()}.
+ */
+public class InvertedIndex extends Analyzer {
+    private static final int MAGIC = 0x46544958;
+    private static final int VERSION = 1;
+
+    private final Path indexFile;
+    private final Path root;
+    private final Charset charset;
+    private final Map<String, IndexedFile> files = new TreeMap<>();
+    private final Map<String, Map<String, Posting>> postings = new HashMap<>();
+    private final NavigableMap<String, Set<String>> suffixes = new TreeMap<>();
+
+    private InvertedIndex(Path indexFile, Path root, Charset charset) {
+        if (!OffsetDecoder.isSupported(charset)) {
+            throw new IllegalArgumentException(format("The charset '%s' is not supported by the index.", charset));
+        }
+        this.indexFile = indexFile;
+        this.root = root.toAbsolutePath().normalize();
+        this.charset = charset;
+    }
+
+    /**
+     * Opens the index stored in {@code indexFile}, or an empty one if it doesn't exist yet.
+     */
+    public static InvertedIndex open(String indexFile, String root) {
+        return open(indexFile, root, StandardCharsets.UTF_8);
+    }
+
+    public static InvertedIndex open(String indexFile, String root, Charset charset) {
+        InvertedIndex index = new InvertedIndex(Paths.get(indexFile), Paths.get(root), charset);
+        if (Files.exists(index.indexFile)) {
+            index.load();
+        }
+        return index;
+    }
+
+    /**
+     * Reindexes new files and files whose size or modification time changed, drops removed
+     * files and saves the index. Returns the number of reindexed files.
+     */
+    public int update() {
+        Map<String, BasicFileAttributes> current = listFiles();
+        int reindexed = 0;
+        for (String path : new ArrayList<>(files.keySet())) {
+            if (!current.containsKey(path)) {
+                remove(path);
+            }
+        }
+        for (Map.Entry<String, BasicFileAttributes> entry : current.entrySet()) {
+            IndexedFile indexed = files.get(entry.getKey());
+            BasicFileAttributes attributes = entry.getValue();
+            if (indexed == null || indexed.isStale(attributes)) {
+                remove(entry.getKey());
+                index(entry.getKey(), attributes);
+                reindexed++;
+            }
+        }
+        save();
+        return reindexed;
+    }
+
+    /**
+     * Answers for one indexed file from its own postings, resolving the path and failing like
+     * {@link FileAnalyzer#analyze(String, String)}. Throws if the file isn't in the index.
+     */
+    @Override
+    public FileInformation analyze(String pathToFile, String searchWord) {
+        validateFilePath(pathToFile);
+        validateSearchWord(searchWord);
+        Path file = Paths.get(pathToFile).toAbsolutePath().normalize();
+        if (!Files.exists(file)) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+        }
+        String path = file.startsWith(root) ? root.relativize(file).toString() : null;
+        if (path == null || !files.containsKey(path)) {
+            throw new IllegalArgumentException(format("The file '%s' is not in the index.", pathToFile));
+        }
+        if (refresh(path)) {
+            save();
+        }
+        IndexedFile indexed = files.get(path);
+        if (indexed == null) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+        }
+        if (indexed.size == 0) {
+            throw new RuntimeException("The file content is empty.");
+        }
+        String term = toTerm(searchWord);
+        if (term == null) {
+            return new FileAnalyzer(charset).analyzeStreaming(file.toString(), searchWord);
+        }
+        int count = 0;
+        SortedSet<Integer> ids = new TreeSet<>();
+        for (Map.Entry<String, Integer> entry : matchingTerms(term).entrySet()) {
+            Posting posting = postings.get(entry.getKey()).get(path);
+            if (posting != null) {
+                count += posting.count * entry.getValue();
+                for (int id : posting.sentenceIds) {
+                    ids.add(id);
+                }
+            }
+        }
+        return count == 0 ? new FileInformation(0, new ArrayList<>()) : new FileInformation(count, sentences(path, ids));
+    }
+
+    /**
+     * Returns the information for every indexed file that contains the word, keyed by absolute path.
+     */
+    public Map<String, FileInformation> query(String searchWord) {
+        validateSearchWord(searchWord);
+        boolean changed = false;
+        for (String path : new ArrayList<>(files.keySet())) {
+            changed |= refresh(path);
+        }
+        if (changed) {
+            save();
+        }
+        String term = toTerm(searchWord);
+        if (term == null) {
+            return scanFiles(searchWord);
+        }
+
+        Map<String, Integer> counts = new TreeMap<>();
+        Map<String, SortedSet<Integer>> sentenceIds = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : matchingTerms(term).entrySet()) {
+            int occurrences = entry.getValue();
+            for (Map.Entry<String, Posting> posting : postings.get(entry.getKey()).entrySet()) {
+                counts.merge(posting.getKey(), posting.getValue().count * occurrences, Integer::sum);
+                SortedSet<Integer> ids = sentenceIds.computeIfAbsent(posting.getKey(), k -> new TreeSet<>());
+                for (int id : posting.getValue().sentenceIds) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        Map<String, FileInformation> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            String path = entry.getKey();
+            result.put(root.resolve(path).toString(),
+                    new FileInformation(entry.getValue(), sentences(path, sentenceIds.get(path))));
+        }
+        return result;
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    static boolean isTermChar(char c) {
+        return SentenceTokenizer.isSentenceChar(c) && Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Returns the lower-cased word, or null if it has characters that never occur in a term.
+     */
+    private static String toTerm(String searchWord) {
+        StringBuilder builder = new StringBuilder(searchWord.length());
+        for (char c : searchWord.toCharArray()) {
+            if (!isTermChar(c)) {
+                return null;
+            }
+            builder.append(Character.toLowerCase(c));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Returns the terms that contain the word with the number of times they contain it. The
+     * term itself comes from the term map; longer terms are found through their suffixes
+     * starting with the word, so the lookup doesn't depend on the vocabulary size.
+     */
+    private Map<String, Integer> matchingTerms(String term) {
+        Map<String, Integer> result = new HashMap<>();
+        if (postings.containsKey(term)) {
+            result.put(term, 1);
+        }
+        for (Set<String> terms : suffixes.subMap(term, term + Character.MAX_VALUE).values()) {
+            for (String value : terms) {
+                if (value.length() > term.length()) {
+                    result.computeIfAbsent(value, k -> countOccurrences(k, term));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addTerm(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            suffixes.computeIfAbsent(term.substring(i), k -> new HashSet<>()).add(term);
+        }
+    }
+
+    private void removeTerm(String term) {
+        for (int i = 0; i < term.length(); i++) {
+            String suffix = term.substring(i);
+            Set<String> terms = suffixes.get(suffix);
+            terms.remove(term);
+            if (terms.isEmpty()) {
+                suffixes.remove(suffix);
+            }
+        }
+    }
+
+    private Map<String, FileInformation> scanFiles(String searchWord) {
+        FileAnalyzer analyzer = new FileAnalyzer(charset);
+        Map<String, FileInformation> result = new LinkedHashMap<>();
+        for (Map.Entry<String, IndexedFile> entry : files.entrySet()) {
+            if (entry.getValue().size == 0) {
+                continue;
+            }
+            String path = root.resolve(entry.getKey()).toString();
+            FileInformation information = analyzer.analyzeStreaming(path, searchWord);
+            if (information.getWordCount() > 0) {
+                result.put(path, information);
+            }
+        }
+        return result;
+    }
+
+    private static int countOccurrences(String term, String word) {
+        int counter = 0;
+        int from = term.indexOf(word);
+        while (from != -1) {
+            counter++;
+            from = term.indexOf(word, from + word.length());
+        }
+        return counter;
+    }
+
+    private OffsetSentences sentences(String path, SortedSet<Integer> ids) {
+        IndexedFile indexed = files.get(path);
+        long[] starts = new long[ids.size()];
+        int[] lengths = new int[ids.size()];
+        int i = 0;
+        for (int id : ids) {
+            starts[i] = indexed.sentenceStarts[id];
+            lengths[i++] = indexed.sentenceLengths[id];
+        }
+        return new OffsetSentences(root.resolve(path), charset, indexed.size, indexed.modified, starts, lengths);
+    }
+
+    /**
+     * Reindexes the file if its size or modification time changed since it was indexed, or drops
+     * it if it is gone. Returns whether the index changed.
+     */
+    private boolean refresh(String path) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(root.resolve(path), BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            remove(path);
+            return true;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (!files.get(path).isStale(attributes)) {
+            return false;
+        }
+        remove(path);
+        if (attributes.isRegularFile()) {
+            index(path, attributes);
+        }
+        return true;
+    }
+
+    private Map<String, BasicFileAttributes> listFiles() {
+        Map<String, BasicFileAttributes> result = new TreeMap<>();
+        Path indexPath = indexFile.toAbsolutePath().normalize();
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path path : paths.collect(Collectors.toList())) {
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                if (attributes.isRegularFile() && !path.equals(indexPath)) {
+                    result.put(root.relativize(path).toString(), attributes);
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    private void remove(String path) {
+        IndexedFile indexed = files.remove(path);
+        if (indexed != null) {
+            for (String term : indexed.terms) {
+                Map<String, Posting> termPostings = postings.get(term);
+                termPostings.remove(path);
+                if (termPostings.isEmpty()) {
+                    postings.remove(term);
+                    removeTerm(term);
+                }
+            }
+        }
+    }
+
+    private void index(String path, BasicFileAttributes attributes) {
+        FileTokenizer tokenizer = new FileTokenizer();
+        try (InputStream stream = Files.newInputStream(root.resolve(path))) {
+            new OffsetDecoder(charset, tokenizer).decode(stream);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        tokenizer.finish();
+
+        IndexedFile indexed = new IndexedFile(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                tokenizer.sentenceStarts.stream().mapToLong(Long::longValue).toArray(),
+                tokenizer.sentenceLengths.stream().mapToInt(Integer::intValue).toArray());
+        for (Map.Entry<String, Posting> entry : tokenizer.postings.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> {
+                addTerm(k);
+                return new HashMap<>();
+            }).put(path, entry.getValue().trim());
+            indexed.terms.add(entry.getKey());
+        }
+        files.put(path, indexed);
+    }
+
+    private void save() {
+        Path temp = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            writeString(out, charset.name());
+            out.writeInt(files.size());
+            for (Map.Entry<String, IndexedFile> entry : files.entrySet()) {
+                IndexedFile indexed = entry.getValue();
+                writeString(out, entry.getKey());
+                out.writeLong(indexed.size);
+                out.writeLong(indexed.modified);
+                out.writeInt(indexed.sentenceStarts.length);
+                for (int i = 0; i < indexed.sentenceStarts.length; i++) {
+                    out.writeLong(indexed.sentenceStarts[i]);
+                    out.writeInt(indexed.sentenceLengths[i]);
+                }
+            }
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Map<String, Posting>> entry : postings.entrySet()) {
+                writeString(out, entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (Map.Entry<String, Posting> posting : entry.getValue().entrySet()) {
+                    writeString(out, posting.getKey());
+                    out.writeInt(posting.getValue().count);
+                    out.writeInt(posting.getValue().sentenceIds.length);
+                    for (int id : posting.getValue().sentenceIds) {
+                        out.writeInt(id);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        try {
+            Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void load() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new RuntimeException(format("The file '%s' is not a supported index.", indexFile));
+            }
+            if (!charset.name().equals(readString(in))) {
+                throw new RuntimeException(format("The index '%s' was built with another charset.", indexFile));
+            }
+            int fileCount = in.readInt();
+            for (int i = 0; i < fileCount; i++) {
+                String path = readString(in);
+                long size = in.readLong();
+                long modified = in.readLong();
+                int sentenceCount = in.readInt();
+                long[] starts = new long[sentenceCount];
+                int[] lengths = new int[sentenceCount];
+                for (int j = 0; j < sentenceCount; j++) {
+                    starts[j] = in.readLong();
+                    lengths[j] = in.readInt();
+                }
+                files.put(path, new IndexedFile(size, modified, starts, lengths));
+            }
+            int termCount = in.readInt();
+            for (int i = 0; i < termCount; i++) {
+                String term = readString(in);
+                int postingCount = in.readInt();
+                Map<String, Posting> termPostings = new HashMap<>(postingCount * 2);
+                for (int j = 0; j < postingCount; j++) {
+                    String path = readString(in);
+                    Posting posting = new Posting();
+                    posting.count = in.readInt();
+                    posting.sentenceIds = new int[in.readInt()];
+                    for (int k = 0; k < posting.sentenceIds.length; k++) {
+                        posting.sentenceIds[k] = in.readInt();
+                    }
+                    termPostings.put(path, posting);
+                    files.get(path).terms.add(term);
+                }
+                postings.put(term, termPostings);
+                addTerm(term);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class IndexedFile {
+        private final long size;
+        private final long modified;
+        private final long[] sentenceStarts;
+        private final int[] sentenceLengths;
+        private final List<String> terms = new ArrayList<>();
+
+        IndexedFile(long size, long modified, long[] sentenceStarts, int[] sentenceLengths) {
+            this.size = size;
+            this.modified = modified;
+            this.sentenceStarts = sentenceStarts;
+            this.sentenceLengths = sentenceLengths;
+        }
+
+        boolean isStale(BasicFileAttributes attributes) {
+            return size != attributes.size() || modified != attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    private static class Posting {
+        private int count;
+        private int[] sentenceIds = new int[4];
+        private int sentenceIdCount;
+
+        void addSentence(int id) {
+            if (sentenceIdCount > 0 && sentenceIds[sentenceIdCount - 1] == id) {
+                return;
+            }
+            if (sentenceIdCount == sentenceIds.length) {
+                sentenceIds = Arrays.copyOf(sentenceIds, sentenceIds.length * 2);
+            }
+            sentenceIds[sentenceIdCount++] = id;
+        }
+
+        Posting trim() {
+            sentenceIds = Arrays.copyOf(sentenceIds, sentenceIdCount);
+            return this;
+        }
+    }
+
+    /**
+     * Records terms, their sentences and the sentence byte ranges of one file.
+     */
+    private static class FileTokenizer implements OffsetDecoder.CharSink {
+        private final Map<String, Posting> postings = new HashMap<>();
+        private final List<Long> sentenceStarts = new ArrayList<>();
+        private final List<Integer> sentenceLengths = new ArrayList<>();
+        private final List<String> termsInSentence = new ArrayList<>();
+        private final StringBuilder term = new StringBuilder();
+
+        private long sentenceStart = -1;
+
+        void finish() {
+            flushTerm();
+        }
+
+        @Override
+        public void accept(char c, long offset, int length) {
+            if (isTermChar(c)) {
+                if (sentenceStart < 0) {
+                    sentenceStart = offset;
+                }
+                term.append(Character.toLowerCase(c));
+                return;
+            }
+            flushTerm();
+            if (SentenceTokenizer.isTerminator(c)) {
+                long start = sentenceStart < 0 ? offset : sentenceStart;
+                int id = sentenceStarts.size();
+                sentenceStarts.add(start);
+                sentenceLengths.add((int) (offset + length - start));
+                for (String value : termsInSentence) {
+                    postings.get(value).addSentence(id);
+                }
+                termsInSentence.clear();
+                sentenceStart = -1;
+            } else if (SentenceTokenizer.isSentenceChar(c)) {
+                if (sentenceStart < 0) {
+                    sentenceStart = offset;
+                }
+            } else {
+                termsInSentence.clear();
+                sentenceStart = -1;
+            }
+        }
+
+        private void flushTerm() {
+            if (term.length() == 0) {
+                return;
+            }
+            String value = term.toString();
+            postings.computeIfAbsent(value, k -> new Posting()).count++;
+            if (sentenceStart >= 0) {
+                termsInSentence.add(value);
+            }
+            term.setLength(0);
+        }
+    }
+
+}
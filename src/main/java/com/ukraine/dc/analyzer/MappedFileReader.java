@@ -0,0 +1,162 @@
+package com.ukraine.dc.analyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+import static java.lang.String.format;
+
+/**
+ * Reads a file through a memory mapping and decodes it with an explicit charset.
+ * Multi-byte characters that straddle a mapped region are carried over by the decoder.
+ */
+public class MappedFileReader {
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final String pathToFile;
+    private final Charset charset;
+    private final LongConsumer progress;
+
+    public MappedFileReader(String pathToFile, Charset charset) {
+        this(pathToFile, charset, null);
+    }
+
+    /**
+     * Creates a reader that reports the bytes decoded for every chunk handed to a consumer.
+     */
+    public MappedFileReader(String pathToFile, Charset charset, LongConsumer progress) {
+        this.pathToFile = pathToFile;
+        this.charset = charset;
+        this.progress = progress;
+    }
+
+    /**
+     * Returns the whole decoded content as a CharSequence without building a String.
+     * ISO-8859-1 content is exposed directly over the mapped bytes.
+     */
+    public CharSequence read() {
+        try (FileChannel channel = open()) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new RuntimeException(format("The file by this path: '%s' is too large to be read into memory.", pathToFile));
+            }
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (StandardCharsets.ISO_8859_1.equals(charset)) {
+                return new ByteCharSequence(bytes, 0, (int) size);
+            }
+            return newDecoder().decode(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decodes the file region by region and hands fixed-size char chunks to the consumer.
+     */
+    public void read(ChunkConsumer consumer) {
+        try (FileChannel channel = open()) {
+            decode(channel, 0, channel.size(), consumer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Decodes only the bytes in [start, end), which must begin on a character boundary.
+     */
+    public void read(long start, long end, ChunkConsumer consumer) {
+        try (FileChannel channel = open()) {
+            decode(channel, start, Math.min(end, channel.size()), consumer);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long size() {
+        try (FileChannel channel = open()) {
+            return channel.size();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void decode(FileChannel channel, long start, long end, ChunkConsumer consumer) throws IOException {
+        CharsetDecoder decoder = newDecoder();
+        CharBuffer chars = CharBuffer.allocate(CHUNK_SIZE);
+        long position = start;
+        while (position < end) {
+            long regionSize = Math.min(REGION_SIZE, end - position);
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, regionSize);
+            decode(decoder, bytes, chars, position + regionSize == end, consumer);
+            position += bytes.position();
+        }
+        decode(decoder, ByteBuffer.allocate(0), chars, true, consumer);
+        while (decoder.flush(chars).isOverflow()) {
+            emit(chars, consumer);
+        }
+        emit(chars, consumer);
+    }
+
+    private FileChannel open() throws IOException {
+        try {
+            return FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+        }
+    }
+
+    private CharsetDecoder newDecoder() {
+        return charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+
+    private void decode(CharsetDecoder decoder, ByteBuffer bytes, CharBuffer chars,
+                        boolean endOfInput, ChunkConsumer consumer) throws CharacterCodingException {
+        int reported = bytes.position();
+        while (true) {
+            CoderResult result = decoder.decode(bytes, chars, endOfInput);
+            if (result.isOverflow()) {
+                emit(chars, consumer);
+                reported = report(bytes, reported);
+            } else if (result.isUnderflow()) {
+                report(bytes, reported);
+                return;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private int report(ByteBuffer bytes, int reported) {
+        if (progress != null && bytes.position() > reported) {
+            progress.accept(bytes.position() - reported);
+        }
+        return bytes.position();
+    }
+
+    private static void emit(CharBuffer chars, ChunkConsumer consumer) {
+        chars.flip();
+        if (chars.hasRemaining()) {
+            consumer.accept(chars.array(), chars.arrayOffset() + chars.position(), chars.remaining());
+        }
+        chars.clear();
+    }
+
+    /**
+     * Receives decoded characters; the array is reused between calls.
+     */
+    @FunctionalInterface
+    public interface ChunkConsumer {
+        void accept(char[] chars, int offset, int length);
+    }
+
+}
@@ -0,0 +1,123 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.*;
+
+/**
+ * Case-insensitive Aho-Corasick automaton over a set of search words.
+ * Every node keeps the indexes of all words that end at it, including those
+ * reachable through failure links, so a single transition reports every match.
+ */
+final class MultiWordMatcher {
+    private static final int ROOT = 0;
+    private static final int[] NO_OUTPUT = new int[0];
+
+    private final int[] wordLengths;
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] failure;
+    private final int[][] outputs;
+
+    MultiWordMatcher(List<String> words) {
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<List<Integer>> nodeOutputs = new ArrayList<>();
+        children.add(new TreeMap<>());
+        nodeOutputs.add(new ArrayList<>());
+        wordLengths = new int[words.size()];
+
+        for (int index = 0; index < words.size(); index++) {
+            String word = words.get(index);
+            wordLengths[index] = word.length();
+            int node = ROOT;
+            for (int i = 0; i < word.length(); i++) {
+                char c = Character.toLowerCase(word.charAt(i));
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.get(node).put(c, next);
+                    children.add(new TreeMap<>());
+                    nodeOutputs.add(new ArrayList<>());
+                }
+                node = next;
+            }
+            nodeOutputs.get(node).add(index);
+        }
+
+        int size = children.size();
+        keys = new char[size][];
+        targets = new int[size][];
+        failure = new int[size];
+        outputs = new int[size][];
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> edges = children.get(node);
+            keys[node] = new char[edges.size()];
+            targets[node] = new int[edges.size()];
+            int i = 0;
+            for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                keys[node][i] = edge.getKey();
+                targets[node][i++] = edge.getValue();
+            }
+        }
+        buildFailureLinks(nodeOutputs);
+    }
+
+    int root() {
+        return ROOT;
+    }
+
+    int advance(int state, char c) {
+        char lower = Character.toLowerCase(c);
+        while (true) {
+            int next = child(state, lower);
+            if (next != -1) {
+                return next;
+            }
+            if (state == ROOT) {
+                return ROOT;
+            }
+            state = failure[state];
+        }
+    }
+
+    /**
+     * Indexes of the words that end at this state; the array must not be modified.
+     */
+    int[] matches(int state) {
+        return outputs[state];
+    }
+
+    int wordLength(int index) {
+        return wordLengths[index];
+    }
+
+    int wordCount() {
+        return wordLengths.length;
+    }
+
+    private int child(int node, char c) {
+        int i = Arrays.binarySearch(keys[node], c);
+        return i >= 0 ? targets[node][i] : -1;
+    }
+
+    private void buildFailureLinks(List<List<Integer>> nodeOutputs) {
+        Deque<Integer> queue = new ArrayDeque<>();
+        outputs[ROOT] = NO_OUTPUT;
+        for (int child : targets[ROOT]) {
+            failure[child] = ROOT;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            List<Integer> merged = new ArrayList<>(nodeOutputs.get(node));
+            for (int inherited : outputs[failure[node]]) {
+                merged.add(inherited);
+            }
+            outputs[node] = merged.isEmpty() ? NO_OUTPUT : merged.stream().mapToInt(Integer::intValue).toArray();
+            for (int i = 0; i < keys[node].length; i++) {
+                int child = targets[node][i];
+                failure[child] = advance(failure[node], keys[node][i]);
+                queue.add(child);
+            }
+        }
+    }
+
+}
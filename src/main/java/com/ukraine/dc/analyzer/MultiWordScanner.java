@@ -0,0 +1,133 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass scanner for several search words at once. It follows the same sentence
+ * and line rules as {@link ContentScanner}, but drives a shared Aho-Corasick automaton.
+ */
+class MultiWordScanner {
+    private final MultiWordMatcher matcher;
+    private final StringBuilder sentence = new StringBuilder();
+    private final int[] wordCounts;
+    private final long[] countedUntil;
+    private final long[] sentenceMarks;
+    private final List<List<String>> sentences = new ArrayList<>();
+
+    private int wordState;
+    private long wordPosition;
+    private int sentenceState;
+    private long sentenceNumber = 1;
+    private boolean sentenceHasWord;
+    private boolean pendingCarriageReturn;
+    private boolean empty = true;
+
+    MultiWordScanner(MultiWordMatcher matcher) {
+        this.matcher = matcher;
+        this.wordCounts = new int[matcher.wordCount()];
+        this.countedUntil = new long[matcher.wordCount()];
+        this.sentenceMarks = new long[matcher.wordCount()];
+        for (int i = 0; i < matcher.wordCount(); i++) {
+            sentences.add(new ArrayList<>());
+        }
+        this.wordState = matcher.root();
+        this.sentenceState = matcher.root();
+    }
+
+    void accept(char[] chars, int offset, int length) {
+        if (length > 0) {
+            empty = false;
+        }
+        for (int i = offset; i < offset + length; i++) {
+            char c = chars[i];
+            scanSentence(c);
+            scanWord(c);
+        }
+    }
+
+    /**
+     * Returns one result per word, in the order the words were given to the matcher.
+     */
+    List<FileInformation> finish() {
+        if (empty) {
+            throw new RuntimeException("The file content is empty.");
+        }
+        return complete();
+    }
+
+    /**
+     * Returns the results for the scanned part of the content, which may be empty.
+     */
+    List<FileInformation> complete() {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            matchWord('\r');
+        }
+        List<FileInformation> result = new ArrayList<>(wordCounts.length);
+        for (int i = 0; i < wordCounts.length; i++) {
+            result.add(new FileInformation(wordCounts[i], sentences.get(i)));
+        }
+        return result;
+    }
+
+    private void scanSentence(char c) {
+        boolean terminator = SentenceTokenizer.isTerminator(c);
+        if (!terminator && !SentenceTokenizer.isSentenceChar(c)) {
+            resetSentence();
+            return;
+        }
+        sentence.append(c);
+        sentenceState = matcher.advance(sentenceState, c);
+        for (int index : matcher.matches(sentenceState)) {
+            sentenceMarks[index] = sentenceNumber;
+            sentenceHasWord = true;
+        }
+        if (terminator) {
+            if (sentenceHasWord) {
+                String value = sentence.toString();
+                for (int i = 0; i < sentenceMarks.length; i++) {
+                    if (sentenceMarks[i] == sentenceNumber) {
+                        sentences.get(i).add(value);
+                    }
+                }
+            }
+            resetSentence();
+        }
+    }
+
+    private void resetSentence() {
+        sentence.setLength(0);
+        sentenceState = matcher.root();
+        sentenceHasWord = false;
+        sentenceNumber++;
+    }
+
+    private void scanWord(char c) {
+        if (pendingCarriageReturn) {
+            pendingCarriageReturn = false;
+            if (c == '\n') {
+                wordState = matcher.root();
+                return;
+            }
+            matchWord('\r');
+        }
+        if (c == '\r') {
+            pendingCarriageReturn = true;
+        } else {
+            matchWord(c);
+        }
+    }
+
+    private void matchWord(char c) {
+        wordState = matcher.advance(wordState, c);
+        wordPosition++;
+        for (int index : matcher.matches(wordState)) {
+            if (wordPosition - matcher.wordLength(index) >= countedUntil[index]) {
+                wordCounts[index]++;
+                countedUntil[index] = wordPosition;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.ukraine.dc.analyzer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Decodes UTF-8 or a single-byte charset and reports every character with the exact byte
+ * range it came from. Malformed input is reported as U+FFFD covering the malformed bytes.
+ */
+class OffsetDecoder {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final char[] singleByteChars;
+    private final CharSink sink;
+
+    private long position;
+    private long charStart;
+    private int codePoint;
+    private int minCodePoint;
+    private int pendingBytes;
+
+    OffsetDecoder(Charset charset, CharSink sink) {
+        if (!isSupported(charset)) {
+            throw new IllegalArgumentException(String.format("The charset '%s' has no fixed byte offsets.", charset));
+        }
+        this.sink = sink;
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            singleByteChars = null;
+        } else {
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) i;
+            }
+            singleByteChars = new String(bytes, charset).toCharArray();
+        }
+    }
+
+    static boolean isSupported(Charset charset) {
+        return StandardCharsets.UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1;
+    }
+
+    /**
+     * Decodes the whole stream, including a trailing incomplete character.
+     */
+    void decode(InputStream stream) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = stream.read(buffer)) != -1) {
+            for (int i = 0; i < count; i++) {
+                accept(buffer[i]);
+            }
+        }
+        finish();
+    }
+
+    void accept(byte b) {
+        long offset = position++;
+        if (singleByteChars != null) {
+            sink.accept(singleByteChars[b & 0xFF], offset, 1);
+            return;
+        }
+        int value = b & 0xFF;
+        if (pendingBytes > 0) {
+            if ((value & 0xC0) == 0x80) {
+                codePoint = (codePoint << 6) | (value & 0x3F);
+                if (--pendingBytes == 0) {
+                    boolean valid = codePoint >= minCodePoint && codePoint <= Character.MAX_VALUE;
+                    sink.accept(valid ? (char) codePoint : '\uFFFD', charStart, (int) (position - charStart));
+                }
+                return;
+            }
+            pendingBytes = 0;
+            sink.accept('\uFFFD', charStart, (int) (offset - charStart));
+        }
+        charStart = offset;
+        if (value < 0x80) {
+            sink.accept((char) value, offset, 1);
+        } else if ((value & 0xE0) == 0xC0) {
+            codePoint = value & 0x1F;
+            minCodePoint = 0x80;
+            pendingBytes = 1;
+        } else if ((value & 0xF0) == 0xE0) {
+            codePoint = value & 0x0F;
+            minCodePoint = 0x800;
+            pendingBytes = 2;
+        } else if ((value & 0xF8) == 0xF0) {
+            codePoint = value & 0x07;
+            minCodePoint = 0x10000;
+            pendingBytes = 3;
+        } else {
+            sink.accept('\uFFFD', offset, 1);
+        }
+    }
+
+    void finish() {
+        if (pendingBytes > 0) {
+            pendingBytes = 0;
+            sink.accept('\uFFFD', charStart, (int) (position - charStart));
+        }
+    }
+
+    @FunctionalInterface
+    interface CharSink {
+        void accept(char c, long offset, int length);
+    }
+
+}
@@ -0,0 +1,79 @@
+package com.ukraine.dc.analyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Sentences kept as byte ranges of a file and decoded only when they are requested. The ranges
+ * are only valid for the file as it was when they were found, so reading fails with an
+ * IllegalStateException once its size or modification time differ.
+ */
+class OffsetSentences {
+    private final Path file;
+    private final Charset charset;
+    private final long fileSize;
+    private final long modified;
+    private final long[] starts;
+    private final int[] lengths;
+
+    /**
+     * Creates the sentences of the file that had the given size and modification time in
+     * milliseconds when the byte ranges were recorded.
+     */
+    OffsetSentences(Path file, Charset charset, long fileSize, long modified, long[] starts, int[] lengths) {
+        this.file = file;
+        this.charset = charset;
+        this.fileSize = fileSize;
+        this.modified = modified;
+        this.starts = starts;
+        this.lengths = lengths;
+    }
+
+    int size() {
+        return starts.length;
+    }
+
+    /**
+     * Reads the sentences from {@code from} inclusive to {@code to} exclusive with one open channel.
+     */
+    List<String> read(int from, int to) {
+        List<String> sentences = new ArrayList<>(to - from);
+        if (from == to) {
+            return sentences;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            checkUnchanged(channel);
+            for (int i = from; i < to; i++) {
+                ByteBuffer buffer = ByteBuffer.allocate(lengths[i]);
+                while (buffer.hasRemaining() && channel.read(buffer, starts[i] + buffer.position()) != -1) {
+                    // keep reading until the whole sentence is in the buffer
+                }
+                buffer.flip();
+                sentences.add(charset.decode(buffer).toString());
+            }
+            checkUnchanged(channel);
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", file));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return sentences;
+    }
+
+    private void checkUnchanged(FileChannel channel) throws IOException {
+        if (channel.size() != fileSize || Files.getLastModifiedTime(file).toMillis() != modified) {
+            throw new IllegalStateException(format("The file '%s' changed after its sentences were found.", file));
+        }
+    }
+
+}
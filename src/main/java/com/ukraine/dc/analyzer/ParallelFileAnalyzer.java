@@ -0,0 +1,163 @@
+package com.ukraine.dc.analyzer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static java.lang.String.format;
+
+/**
+ * Splits a file after sentence terminators and analyzes the segments on a ForkJoinPool.
+ * The merged result is identical to the sequential {@link FileAnalyzer}.
+ */
+public class ParallelFileAnalyzer extends Analyzer implements AutoCloseable {
+    private static final long DEFAULT_MIN_SEGMENT_SIZE = 1024 * 1024;
+    private static final int SEGMENTS_PER_THREAD = 4;
+    private static final int SCAN_BUFFER_SIZE = 64 * 1024;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+    private final Charset charset;
+    private final long minSegmentSize;
+
+    public ParallelFileAnalyzer(int parallelism) {
+        this(parallelism, StandardCharsets.UTF_8);
+    }
+
+    public ParallelFileAnalyzer(int parallelism, Charset charset) {
+        this(new ForkJoinPool(parallelism), true, charset, DEFAULT_MIN_SEGMENT_SIZE);
+    }
+
+    public ParallelFileAnalyzer(ForkJoinPool pool, Charset charset) {
+        this(pool, false, charset, DEFAULT_MIN_SEGMENT_SIZE);
+    }
+
+    ParallelFileAnalyzer(ForkJoinPool pool, boolean ownsPool, Charset charset, long minSegmentSize) {
+        this.pool = pool;
+        this.ownsPool = ownsPool;
+        this.charset = charset;
+        this.minSegmentSize = minSegmentSize;
+    }
+
+    @Override
+    public FileInformation analyze(String pathToFile, String searchWord) {
+        validateFilePath(pathToFile);
+        validateSearchWord(searchWord);
+        MappedFileReader reader = new MappedFileReader(pathToFile, charset);
+        long[] bounds = split(pathToFile, searchWord);
+        if (bounds.length == 1) {
+            throw new RuntimeException("The file content is empty.");
+        }
+        return pool.invoke(new SegmentTask(reader, searchWord, bounds, 0, bounds.length - 1));
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    @Override
+    public void close() {
+        if (ownsPool) {
+            pool.shutdown();
+        }
+    }
+
+    private long[] split(String pathToFile, String searchWord) {
+        try (FileChannel channel = FileChannel.open(Paths.get(pathToFile), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return new long[]{0};
+            }
+            if (!isSplittable(searchWord)) {
+                return new long[]{0, size};
+            }
+            long segmentSize = Math.max(minSegmentSize, size / ((long) pool.getParallelism() * SEGMENTS_PER_THREAD));
+            List<Long> bounds = new ArrayList<>();
+            bounds.add(0L);
+            long position = 0;
+            while (position < size) {
+                position = position + segmentSize >= size ? size : findSplit(channel, position + segmentSize, size);
+                bounds.add(position);
+            }
+            return bounds.stream().mapToLong(Long::longValue).toArray();
+        } catch (NoSuchFileException e) {
+            throw new RuntimeException(format("The file by this path: '%s' wasn't found.", pathToFile));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private boolean isSplittable(String searchWord) {
+        for (char c : searchWord.toCharArray()) {
+            if (SentenceTokenizer.isTerminator(c)) {
+                return false;
+            }
+        }
+        boolean asciiCompatible = StandardCharsets.UTF_8.equals(charset) || charset.newEncoder().maxBytesPerChar() == 1;
+        return asciiCompatible && Arrays.equals(".?!".getBytes(charset), new byte[]{'.', '?', '!'});
+    }
+
+    private static long findSplit(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int count = channel.read(buffer, position);
+            if (count <= 0) {
+                break;
+            }
+            for (int i = 0; i < count; i++) {
+                byte b = buffer.get(i);
+                if (b == '.' || b == '?' || b == '!') {
+                    return position + i + 1;
+                }
+            }
+            position += count;
+        }
+        return size;
+    }
+
+    private static class SegmentTask extends RecursiveTask<FileInformation> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MappedFileReader reader;
+        private final String searchWord;
+        private final long[] bounds;
+        private final int from;
+        private final int to;
+
+        SegmentTask(MappedFileReader reader, String searchWord, long[] bounds, int from, int to) {
+            this.reader = reader;
+            this.searchWord = searchWord;
+            this.bounds = bounds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected FileInformation compute() {
+            if (to - from == 1) {
+                ContentScanner scanner = new ContentScanner(searchWord);
+                reader.read(bounds[from], bounds[to], scanner::accept);
+                return scanner.complete();
+            }
+            int middle = (from + to) >>> 1;
+            SegmentTask left = new SegmentTask(reader, searchWord, bounds, from, middle);
+            SegmentTask right = new SegmentTask(reader, searchWord, bounds, middle, to);
+            left.fork();
+            FileInformation rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+
+}
@@ -0,0 +1,150 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache of file segmentations keyed by path, size and last-modified time.
+ * The bound is an estimate of the retained heap size in bytes.
+ */
+public class SentenceCache {
+    private final long maxSizeInBytes;
+    private final LinkedHashMap<Key, Segmentation> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private long sizeInBytes;
+
+    public SentenceCache(long maxSizeInBytes) {
+        if (maxSizeInBytes <= 0) {
+            throw new IllegalArgumentException("The cache size should be positive.");
+        }
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    Segmentation get(String path, long size, long modified) {
+        Segmentation segmentation;
+        synchronized (entries) {
+            segmentation = entries.get(new Key(path, size, modified));
+        }
+        (segmentation != null ? hits : misses).incrementAndGet();
+        return segmentation;
+    }
+
+    void put(String path, long size, long modified, Segmentation segmentation) {
+        long entrySize = segmentation.sizeInBytes();
+        if (entrySize > maxSizeInBytes) {
+            return;
+        }
+        synchronized (entries) {
+            Segmentation previous = entries.put(new Key(path, size, modified), segmentation);
+            if (previous != null) {
+                sizeInBytes -= previous.sizeInBytes();
+            }
+            sizeInBytes += entrySize;
+            Iterator<Segmentation> iterator = entries.values().iterator();
+            while (sizeInBytes > maxSizeInBytes) {
+                sizeInBytes -= iterator.next().sizeInBytes();
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            sizeInBytes = 0;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getSizeInBytes() {
+        synchronized (entries) {
+            return sizeInBytes;
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static class Key {
+        private final String path;
+        private final long size;
+        private final long modified;
+
+        Key(String path, long size, long modified) {
+            this.path = path;
+            this.size = size;
+            this.modified = modified;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return size == key.size && modified == key.modified && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(path, size, modified);
+        }
+    }
+
+    /**
+     * Decoded content of a file together with the [start, end) offsets of its valid sentences.
+     */
+    static class Segmentation {
+        private static final long OBJECT_OVERHEAD = 64;
+
+        private final CharSequence content;
+        private final int[] bounds;
+
+        Segmentation(CharSequence content, int[] bounds) {
+            this.content = content;
+            this.bounds = bounds;
+        }
+
+        FileInformation analyze(WordMatcher matcher) {
+            List<String> sentences = new ArrayList<>();
+            for (int i = 0; i < bounds.length; i += 2) {
+                if (matcher.containedIn(content, bounds[i], bounds[i + 1])) {
+                    sentences.add(content.subSequence(bounds[i], bounds[i + 1]).toString());
+                }
+            }
+            ContentScanner scanner = new ContentScanner(matcher, false);
+            scanner.accept(content);
+            return new FileInformation(scanner.complete().getWordCount(), sentences);
+        }
+
+        long sizeInBytes() {
+            return OBJECT_OVERHEAD + 2L * content.length() + 4L * bounds.length;
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Linear-time sentence tokenizer. A valid sentence is a run of letters (Latin and Cyrillic),
+ * digits, whitespace, backslashes and commas that ends with '.', '?' or '!'; any other
+ * character breaks the run. Each character is inspected exactly once.
+ */
+public final class SentenceTokenizer {
+    private static final char[] SENTENCE_CHARS = ("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789"
+            + " \t\n\u000B\f\r\\,\u0401\u0451").toCharArray();
+    private static final boolean[] IS_SENTENCE_CHAR = new boolean['\u0451' + 1];
+
+    static {
+        for (char c : SENTENCE_CHARS) {
+            IS_SENTENCE_CHAR[c] = true;
+        }
+        for (char c = '\u0410'; c <= '\u044f'; c++) {
+            IS_SENTENCE_CHAR[c] = true;
+        }
+    }
+
+    private SentenceTokenizer() {
+    }
+
+    /**
+     * Returns the [start, end) offsets of the valid sentences as consecutive pairs.
+     */
+    public static int[] tokenize(CharSequence content) {
+        int[] bounds = new int[16];
+        int size = 0;
+        int start = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (isTerminator(c)) {
+                if (size == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, size * 2);
+                }
+                bounds[size++] = start;
+                bounds[size++] = i + 1;
+                start = i + 1;
+            } else if (!isSentenceChar(c)) {
+                start = i + 1;
+            }
+        }
+        return Arrays.copyOf(bounds, size);
+    }
+
+    static boolean isTerminator(char c) {
+        return c == '.' || c == '?' || c == '!';
+    }
+
+    static boolean isSentenceChar(char c) {
+        return c < IS_SENTENCE_CHAR.length && IS_SENTENCE_CHAR[c];
+    }
+
+}
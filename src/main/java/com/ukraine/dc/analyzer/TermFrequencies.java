@@ -0,0 +1,221 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.*;
+
+/**
+ * Exact term frequencies in an open-addressing table with linear probing. The characters of
+ * all terms live in one shared char pool and the slots are parallel primitive arrays, so a term
+ * costs no String, Integer or entry object; Strings are only built for {@link #top(int)}.
+ * Counts are longs, so totals merged over a large tree don't wrap around.
+ */
+public final class TermFrequencies extends TermHistogram {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] lengths = new int[INITIAL_CAPACITY];
+    private long[] counts = new long[INITIAL_CAPACITY];
+    private char[] pool = new char[INITIAL_CAPACITY * 8];
+    private int poolSize;
+    private int size;
+    private long totalCount;
+
+    @Override
+    void add(char[] chars, int offset, int length, int hash) {
+        int slot = slot(chars, offset, length, hash);
+        counts[slot]++;
+        totalCount++;
+    }
+
+    /**
+     * Sets the value of the term, used by {@link TermSketch} to keep its candidates.
+     */
+    void put(char[] chars, int offset, int length, int hash, long value) {
+        int slot = slot(chars, offset, length, hash);
+        totalCount += value - counts[slot];
+        counts[slot] = value;
+    }
+
+    @Override
+    public long getCount(String term) {
+        char[] chars = normalize(term);
+        int slot = find(chars, 0, chars.length, hash(chars, 0, chars.length));
+        return slot < 0 ? 0 : counts[slot];
+    }
+
+    @Override
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the number of distinct terms.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public List<TermCount> top(int k) {
+        validateTopSize(k);
+        int[] slots = topSlots(k);
+        List<TermCount> result = new ArrayList<>(slots.length);
+        for (int slot : slots) {
+            result.add(new TermCount(new String(pool, starts[slot], lengths[slot]), counts[slot]));
+        }
+        return result;
+    }
+
+    /**
+     * Adds the counts of the other table to this one, for reports over several files.
+     */
+    public TermFrequencies merge(TermFrequencies other) {
+        for (int slot = 0; slot < other.counts.length; slot++) {
+            if (other.counts[slot] != 0) {
+                int target = slot(other.pool, other.starts[slot], other.lengths[slot], other.hashes[slot]);
+                counts[target] += other.counts[slot];
+            }
+        }
+        totalCount += other.totalCount;
+        return this;
+    }
+
+    /**
+     * Returns a table holding only the {@code k} most frequent terms.
+     */
+    TermFrequencies retainTop(int k) {
+        TermFrequencies retained = new TermFrequencies();
+        for (int slot : topSlots(k)) {
+            retained.put(pool, starts[slot], lengths[slot], hashes[slot], counts[slot]);
+        }
+        return retained;
+    }
+
+    void forEach(TermVisitor visitor) {
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] != 0) {
+                visitor.visit(pool, starts[slot], lengths[slot], hashes[slot], counts[slot]);
+            }
+        }
+    }
+
+    /**
+     * Selects the top slots with a bounded min-heap over slot indexes, O(n log k).
+     */
+    private int[] topSlots(int k) {
+        Comparator<Integer> order = (a, b) -> counts[a] != counts[b]
+                ? Long.compare(counts[a], counts[b]) : compareTerms(b, a);
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, Math.min(k, size)), order);
+        for (int slot = 0; slot < counts.length && k > 0; slot++) {
+            if (counts[slot] == 0) {
+                continue;
+            }
+            if (heap.size() < k) {
+                heap.add(slot);
+            } else if (order.compare(slot, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(slot);
+            }
+        }
+        int[] result = new int[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap.poll();
+        }
+        return result;
+    }
+
+    private int compareTerms(int a, int b) {
+        int length = Math.min(lengths[a], lengths[b]);
+        for (int i = 0; i < length; i++) {
+            char x = pool[starts[a] + i];
+            char y = pool[starts[b] + i];
+            if (x != y) {
+                return Character.compare(x, y);
+            }
+        }
+        return Integer.compare(lengths[a], lengths[b]);
+    }
+
+    private int find(char[] chars, int offset, int length, int hash) {
+        int mask = counts.length - 1;
+        for (int slot = mix(hash) & mask; lengths[slot] != 0; slot = (slot + 1) & mask) {
+            if (hashes[slot] == hash && matches(slot, chars, offset, length)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the slot of the term, inserting it with a zero count when it is new. A slot is
+     * taken when its length is set, terms are never empty.
+     */
+    private int slot(char[] chars, int offset, int length, int hash) {
+        int mask = counts.length - 1;
+        int slot = mix(hash) & mask;
+        while (lengths[slot] != 0) {
+            if (hashes[slot] == hash && matches(slot, chars, offset, length)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 4L > counts.length * 3L) {
+            resize();
+            return slot(chars, offset, length, hash);
+        }
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+        }
+        System.arraycopy(chars, offset, pool, poolSize, length);
+        hashes[slot] = hash;
+        starts[slot] = poolSize;
+        lengths[slot] = length;
+        poolSize += length;
+        size++;
+        return slot;
+    }
+
+    private boolean matches(int slot, char[] chars, int offset, int length) {
+        if (lengths[slot] != length) {
+            return false;
+        }
+        int start = starts[slot];
+        for (int i = 0; i < length; i++) {
+            if (pool[start + i] != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void resize() {
+        int[] oldHashes = hashes;
+        int[] oldStarts = starts;
+        int[] oldLengths = lengths;
+        long[] oldCounts = counts;
+        int capacity = oldCounts.length * 2;
+        hashes = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        counts = new long[capacity];
+        int mask = capacity - 1;
+        for (int old = 0; old < oldCounts.length; old++) {
+            if (oldLengths[old] == 0) {
+                continue;
+            }
+            int slot = mix(oldHashes[old]) & mask;
+            while (lengths[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            hashes[slot] = oldHashes[old];
+            starts[slot] = oldStarts[old];
+            lengths[slot] = oldLengths[old];
+            counts[slot] = oldCounts[old];
+        }
+    }
+
+    @FunctionalInterface
+    interface TermVisitor {
+        void visit(char[] chars, int offset, int length, int hash, long count);
+    }
+}
@@ -0,0 +1,95 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.List;
+
+/**
+ * Frequencies of the terms of a text: lowercased runs of letters and digits, the same terms
+ * {@link InvertedIndex} indexes. Terms are fed as char slices, so counting creates no objects.
+ */
+public abstract class TermHistogram {
+
+    /**
+     * Counts one occurrence of the lowercased term in {@code chars[offset, offset + length)}
+     * whose {@link #hash(char[], int, int)} is given.
+     */
+    abstract void add(char[] chars, int offset, int length, int hash);
+
+    public abstract long getCount(String term);
+
+    public abstract long getTotalCount();
+
+    /**
+     * Returns the {@code k} most frequent terms, most frequent first and alphabetical on ties.
+     */
+    public abstract List<TermCount> top(int k);
+
+    static int hash(char[] chars, int offset, int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        return hash;
+    }
+
+    static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        hash ^= hash >>> 13;
+        hash *= 0xC2B2AE35;
+        return hash ^ (hash >>> 16);
+    }
+
+    static char[] normalize(String term) {
+        char[] chars = term.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(chars[i]);
+        }
+        return chars;
+    }
+
+    static void validateTopSize(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("The number of terms shouldn't be negative.");
+        }
+    }
+
+    public static class TermCount {
+        private final String term;
+        private final long count;
+
+        TermCount(String term, long count) {
+            this.term = term;
+            this.count = count;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TermCount)) {
+                return false;
+            }
+            TermCount other = (TermCount) o;
+            return count == other.count && term.equals(other.term);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * term.hashCode() + Long.hashCode(count);
+        }
+
+        @Override
+        public String toString() {
+            return term + "=" + count;
+        }
+    }
+}
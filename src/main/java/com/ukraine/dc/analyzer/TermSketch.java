@@ -0,0 +1,113 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.List;
+
+/**
+ * Approximate term frequencies in bounded memory for corpora whose vocabulary doesn't fit in a
+ * {@link TermFrequencies}. Counts come from a count-min sketch, so they are never lower than
+ * the real ones and overestimate by at most {@code e / width} of the total with probability
+ * {@code 1 - e^-depth}. The top terms are tracked as a small set of candidates that is pruned
+ * back to the tracked size whenever it grows four times larger.
+ */
+public final class TermSketch extends TermHistogram {
+    private static final int PRUNE_FACTOR = 4;
+
+    private final int width;
+    private final int depth;
+    private final int tracked;
+    private final int[][] table;
+    private TermFrequencies candidates = new TermFrequencies();
+    private long totalCount;
+
+    /**
+     * @param width   counters per row, rounded up to a power of two
+     * @param depth   number of rows, each with its own hash
+     * @param tracked number of top terms kept as candidates, the largest {@code k} {@link #top(int)} can serve
+     */
+    public TermSketch(int width, int depth, int tracked) {
+        if (width < 1 || width > 1 << 30 || depth < 1 || tracked < 1) {
+            throw new IllegalArgumentException("The width, depth and tracked terms should be positive.");
+        }
+        int rounded = 1;
+        while (rounded < width) {
+            rounded <<= 1;
+        }
+        this.width = rounded;
+        this.depth = depth;
+        this.tracked = tracked;
+        this.table = new int[depth][this.width];
+    }
+
+    @Override
+    void add(char[] chars, int offset, int length, int hash) {
+        int estimate = Integer.MAX_VALUE;
+        int first = mix(hash);
+        int second = mix(hash ^ 0x9E3779B9) | 1;
+        for (int row = 0; row < depth; row++) {
+            int[] counters = table[row];
+            int index = (first + row * second) & (width - 1);
+            if (counters[index] != Integer.MAX_VALUE) {
+                counters[index]++;
+            }
+            estimate = Math.min(estimate, counters[index]);
+        }
+        totalCount++;
+        candidates.put(chars, offset, length, hash, estimate);
+        if (candidates.size() > tracked * PRUNE_FACTOR) {
+            candidates = candidates.retainTop(tracked);
+        }
+    }
+
+    @Override
+    public long getCount(String term) {
+        char[] chars = normalize(term);
+        return estimate(hash(chars, 0, chars.length));
+    }
+
+    @Override
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Returns the estimated top terms; {@code k} is limited to the number of tracked terms.
+     */
+    @Override
+    public List<TermCount> top(int k) {
+        validateTopSize(k);
+        return candidates.top(Math.min(k, tracked));
+    }
+
+    /**
+     * Adds the counters of a sketch with the same dimensions and re-estimates the candidates of both.
+     */
+    public TermSketch merge(TermSketch other) {
+        if (other.width != width || other.depth != depth) {
+            throw new IllegalArgumentException("Only sketches with the same width and depth can be merged.");
+        }
+        for (int row = 0; row < depth; row++) {
+            for (int i = 0; i < width; i++) {
+                table[row][i] = (int) Math.min(Integer.MAX_VALUE, (long) table[row][i] + other.table[row][i]);
+            }
+        }
+        totalCount += other.totalCount;
+        TermFrequencies merged = new TermFrequencies();
+        TermFrequencies.TermVisitor reestimate = (chars, offset, length, hash, count) ->
+                merged.put(chars, offset, length, hash, estimate(hash));
+        candidates.forEach(reestimate);
+        other.candidates.forEach(reestimate);
+        candidates = merged.retainTop(tracked);
+        return this;
+    }
+
+    private int estimate(int hash) {
+        int estimate = Integer.MAX_VALUE;
+        int first = mix(hash);
+        int second = mix(hash ^ 0x9E3779B9) | 1;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, table[row][(first + row * second) & (width - 1)]);
+        }
+        return estimate;
+    }
+
+}
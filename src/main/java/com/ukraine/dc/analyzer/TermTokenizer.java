@@ -0,0 +1,47 @@
+package com.ukraine.dc.analyzer;
+
+import java.util.Arrays;
+
+/**
+ * Splits decoded chunks into lowercased terms and feeds them to a histogram. A term cut by a
+ * chunk boundary is carried over in a reused buffer, so no object is created per term.
+ */
+class TermTokenizer implements MappedFileReader.ChunkConsumer {
+    private final TermHistogram histogram;
+    private char[] term = new char[64];
+    private int length;
+    private int hash;
+
+    TermTokenizer(TermHistogram histogram) {
+        this.histogram = histogram;
+    }
+
+    @Override
+    public void accept(char[] chars, int offset, int count) {
+        for (int i = offset; i < offset + count; i++) {
+            char c = chars[i];
+            if (InvertedIndex.isTermChar(c)) {
+                if (length == term.length) {
+                    term = Arrays.copyOf(term, length * 2);
+                }
+                char lower = Character.toLowerCase(c);
+                term[length++] = lower;
+                hash = 31 * hash + lower;
+            } else {
+                flush();
+            }
+        }
+    }
+
+    /**
+     * Counts the term at the end of the input, if any.
+     */
+    void flush() {
+        if (length > 0) {
+            histogram.add(term, 0, length, hash);
+            length = 0;
+            hash = 0;
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.ukraine.dc.analyzer;
+
+/**
+ * Case-insensitive search automaton for a single word, built once per search word.
+ * It consumes one character at a time, so it also works across chunk boundaries.
+ */
+final class WordMatcher {
+    private final char[] word;
+    private final int[] failure;
+
+    WordMatcher(String searchWord) {
+        this.word = new char[searchWord.length()];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = Character.toLowerCase(searchWord.charAt(i));
+        }
+        this.failure = buildFailureTable(word);
+    }
+
+    /**
+     * Returns the automaton state after reading {@code c}; the state equals {@link #length()} on a match.
+     */
+    int advance(int state, char c) {
+        char lower = Character.toLowerCase(c);
+        if (state == word.length) {
+            state = failure[state - 1];
+        }
+        while (state > 0 && word[state] != lower) {
+            state = failure[state - 1];
+        }
+        return word[state] == lower ? state + 1 : state;
+    }
+
+    boolean isMatch(int state) {
+        return state == word.length;
+    }
+
+    int length() {
+        return word.length;
+    }
+
+    boolean containedIn(CharSequence text) {
+        return containedIn(text, 0, text.length());
+    }
+
+    boolean containedIn(CharSequence text, int start, int end) {
+        int state = 0;
+        for (int i = start; i < end; i++) {
+            state = advance(state, text.charAt(i));
+            if (state == word.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[] buildFailureTable(char[] word) {
+        int[] table = new int[word.length];
+        int length = 0;
+        for (int i = 1; i < word.length; i++) {
+            while (length > 0 && word[i] != word[length]) {
+                length = table[length - 1];
+            }
+            if (word[i] == word[length]) {
+                length++;
+            }
+            table[i] = length;
+        }
+        return table;
+    }
+
+}
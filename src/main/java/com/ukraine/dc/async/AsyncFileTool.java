@@ -0,0 +1,124 @@
+package com.ukraine.dc.async;
+
+import com.ukraine.dc.analyzer.FileAnalyzer;
+import com.ukraine.dc.analyzer.FileInformation;
+import com.ukraine.dc.manager.CopyOptions;
+import com.ukraine.dc.manager.FileManager;
+import com.ukraine.dc.manager.OperationResult;
+import com.ukraine.dc.operation.CancellationToken;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static java.lang.String.format;
+
+/**
+ * Runs the blocking file operations on the caller's executor and returns their futures.
+ * Completing a future in any way, by {@code cancel}, {@code orTimeout} or the default timeout
+ * of this tool, cancels the operation behind it, which stops between files and chunks.
+ */
+public class AsyncFileTool {
+    private final Executor executor;
+    private final FileAnalyzer analyzer;
+    private final Duration timeout;
+
+    public AsyncFileTool(Executor executor) {
+        this(executor, new FileAnalyzer(), null);
+    }
+
+    /**
+     * Creates a tool whose operations fail with a TimeoutException and are cancelled once the
+     * timeout passes; a null timeout lets them run until they finish.
+     */
+    public AsyncFileTool(Executor executor, FileAnalyzer analyzer, Duration timeout) {
+        if (executor == null || analyzer == null) {
+            throw new IllegalArgumentException("The executor and the analyzer shouldn't be null.");
+        }
+        if (timeout != null && (timeout.isNegative() || timeout.isZero())) {
+            throw new IllegalArgumentException("The timeout should be positive.");
+        }
+        this.executor = executor;
+        this.analyzer = analyzer;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Copies like {@link FileManager#copy(String, String, CopyOptions)}; the options are copied
+     * with the token of this operation, which is linked to the token of the options, so either
+     * of them stops the copy. The caller's object and token are left unchanged.
+     */
+    public CompletableFuture<OperationResult> copy(String from, String to, CopyOptions options) {
+        return submit(options.getCancellationToken(),
+                token -> FileManager.copy(from, to, options.withCancellationToken(token)));
+    }
+
+    /**
+     * Moves like {@link FileManager#move(String, String, CopyOptions)}, with the tokens linked
+     * like in {@link #copy(String, String, CopyOptions)}.
+     */
+    public CompletableFuture<OperationResult> move(String from, String to, CopyOptions options) {
+        return submit(options.getCancellationToken(),
+                token -> FileManager.move(from, to, options.withCancellationToken(token)));
+    }
+
+    public CompletableFuture<OperationResult> delete(String path, int parallelism) {
+        return submit(token -> FileManager.delete(path, parallelism, token));
+    }
+
+    /**
+     * Deletes like {@link FileManager#deleteFiles(java.io.File)}, failing when any entry is left.
+     */
+    public CompletableFuture<Void> deleteFiles(String path) {
+        return submit(token -> {
+            OperationResult result = FileManager.delete(path, 1, token);
+            if (!result.isSuccessful()) {
+                Map.Entry<String, Exception> first = result.getFailures().entrySet().iterator().next();
+                throw new RuntimeException(format("Failed to delete %d entries, first: %s",
+                        result.getFailures().size(), first.getKey()), first.getValue());
+            }
+            return null;
+        });
+    }
+
+    public CompletableFuture<Integer> countFiles(String path) {
+        return submit(token -> FileManager.countFiles(path, token));
+    }
+
+    public CompletableFuture<FileInformation> analyze(String pathToFile, String searchWord) {
+        return submit(token -> analyzer.analyzeStreaming(pathToFile, searchWord, token));
+    }
+
+    private <T> CompletableFuture<T> submit(Function<CancellationToken, T> operation) {
+        return submit(CancellationToken.NONE, operation);
+    }
+
+    private <T> CompletableFuture<T> submit(CancellationToken parent, Function<CancellationToken, T> operation) {
+        CancellationToken token = CancellationToken.linkedTo(parent);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, exception) -> token.cancel());
+        if (timeout != null) {
+            future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        }
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(operation.apply(token));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+}
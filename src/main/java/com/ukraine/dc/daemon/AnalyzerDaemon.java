@@ -0,0 +1,349 @@
+package com.ukraine.dc.daemon;
+
+import com.ukraine.dc.analyzer.FileAnalyzer;
+import com.ukraine.dc.analyzer.FileInformation;
+import com.ukraine.dc.analyzer.SentenceCache;
+import com.ukraine.dc.manager.CopyOptions;
+import com.ukraine.dc.manager.FileManager;
+import com.ukraine.dc.manager.OperationResult;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+
+/**
+ * Long-lived server that answers newline-delimited JSON requests from one warm JVM, so the
+ * startup and warm-up cost is paid once instead of per file. Requests run concurrently and
+ * each response is written as one line as soon as it is ready, tagged with the request "id":
+ * <pre>
+ * {"id":1,"op":"analyze","path":"a.txt","word":"hello"} -> {"id":1,"wordCount":2,"sentences":[...]}
+ * {"id":2,"op":"count","path":"dir"}                   -> {"id":2,"files":12}
+ * {"id":3,"op":"copy","from":"dir","to":"backup"}      -> {"id":3,"processedFiles":12,...}
+ * </pre>
+ * A request that fails is answered with {"id":..,"error":"message"}.
+ * <p>
+ * Over TCP every connection has to send the daemon's token as its first line, since any local
+ * user can reach the loopback port; a connection with a wrong token is answered with an error
+ * and closed. Unix-domain sockets, which could rely on file permissions instead, are not
+ * offered because the project targets Java 11 and they need Java 16.
+ */
+public class AnalyzerDaemon implements Closeable {
+    private static final long DEFAULT_CACHE_SIZE = 256L * 1024 * 1024;
+    private static final int PENDING_REQUESTS_PER_THREAD = 4;
+    private static final int TOKEN_BYTES = 32;
+    private static final int MAX_TOKEN_LENGTH = 1024;
+    private static final int AUTHENTICATION_TIMEOUT_MILLIS = 10_000;
+
+    private final FileAnalyzer analyzer;
+    private final int parallelism;
+    private final ExecutorService executor;
+    private volatile ServerSocket serverSocket;
+
+    public AnalyzerDaemon() {
+        this(new FileAnalyzer(new SentenceCache(DEFAULT_CACHE_SIZE)), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a daemon running up to {@code parallelism} requests at once with the analyzer,
+     * whose sentence cache stays warm between requests.
+     */
+    public AnalyzerDaemon(FileAnalyzer analyzer, int parallelism) {
+        if (analyzer == null) {
+            throw new IllegalArgumentException("The analyzer shouldn't be null.");
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be positive.");
+        }
+        this.analyzer = analyzer;
+        this.parallelism = parallelism;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "analyzer-daemon-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Usage: {@code --daemon [--port N --token-file FILE | --input FILE]}. Without options the
+     * requests are read from stdin until it is closed; with a port the daemon listens on the
+     * loopback address for clients that send the token stored in the token file, which is
+     * created with a random token readable only by its owner when it doesn't exist.
+     */
+    public static void run(String[] args) {
+        int port = -1;
+        String input = null;
+        String tokenFile = null;
+        for (int i = 1; i < args.length; i++) {
+            if ("--port".equals(args[i]) && i + 1 < args.length) {
+                port = Integer.parseInt(args[++i]);
+            } else if ("--input".equals(args[i]) && i + 1 < args.length) {
+                input = args[++i];
+            } else if ("--token-file".equals(args[i]) && i + 1 < args.length) {
+                tokenFile = args[++i];
+            } else {
+                throw new IllegalArgumentException(format("Unknown daemon option: %s", args[i]));
+            }
+        }
+        if (port >= 0) {
+            if (tokenFile == null) {
+                throw new IllegalArgumentException("The daemon needs a --token-file to listen on a port.");
+            }
+            String token = readOrCreateToken(Paths.get(tokenFile));
+            int boundPort = new AnalyzerDaemon().listen(port, token);
+            System.err.println(format("Listening on %s:%d", InetAddress.getLoopbackAddress().getHostAddress(), boundPort));
+            return;
+        }
+        AnalyzerDaemon daemon = new AnalyzerDaemon();
+        try (daemon; InputStream in = input == null ? System.in : Files.newInputStream(Paths.get(input))) {
+            daemon.serve(in, System.out);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Answers the requests read from the stream until it ends, then waits for the running ones.
+     * At most a few requests per thread are in flight, so a fast producer can't exhaust memory.
+     */
+    public void serve(InputStream in, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        int maxPending = parallelism * PENDING_REQUESTS_PER_THREAD;
+        Semaphore pending = new Semaphore(maxPending);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                Map<String, Object> request;
+                try {
+                    request = JsonLine.parse(line);
+                } catch (IllegalArgumentException e) {
+                    write(writer, error(null, e));
+                    continue;
+                }
+                pending.acquire();
+                try {
+                    CompletableFuture.supplyAsync(() -> handle(request), executor)
+                            .exceptionally(e -> error(request.get("id"), e))
+                            .thenAccept(response -> write(writer, response))
+                            .whenComplete((ignored, e) -> pending.release());
+                } catch (RejectedExecutionException e) {
+                    pending.release();
+                    write(writer, error(request.get("id"), e));
+                }
+            }
+            pending.acquire(maxPending);
+            pending.release(maxPending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while serving requests", e);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Accepts connections on the loopback address, each served like {@link #serve} on its own
+     * thread once its first line matches the token, until the daemon is closed. Port 0 picks a
+     * free port; the bound port is returned.
+     */
+    public int listen(int port, String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("The token shouldn't be empty or null.");
+        }
+        byte[] expected = token.getBytes(StandardCharsets.UTF_8);
+        try {
+            serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to listen on port %d", port), e);
+        }
+        ServerSocket server = serverSocket;
+        Thread acceptor = new Thread(() -> {
+            while (!server.isClosed()) {
+                try {
+                    Socket socket = server.accept();
+                    Thread connection = new Thread(() -> serve(socket, expected), "analyzer-daemon-connection");
+                    connection.setDaemon(true);
+                    connection.start();
+                } catch (SocketException e) {
+                    return;
+                } catch (IOException e) {
+                    System.err.println(format("Failed to accept a connection: %s", e.getMessage()));
+                }
+            }
+        }, "analyzer-daemon-acceptor");
+        acceptor.start();
+        return server.getLocalPort();
+    }
+
+    @Override
+    public void close() {
+        ServerSocket server = serverSocket;
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        executor.shutdown();
+    }
+
+    private void serve(Socket socket, byte[] token) {
+        try (socket) {
+            socket.setSoTimeout(AUTHENTICATION_TIMEOUT_MILLIS);
+            InputStream in = socket.getInputStream();
+            if (!MessageDigest.isEqual(token, readTokenLine(in))) {
+                write(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8),
+                        error(null, new SecurityException("The token is not valid.")));
+                return;
+            }
+            socket.setSoTimeout(0);
+            serve(in, socket.getOutputStream());
+        } catch (IOException | RuntimeException e) {
+            System.err.println(format("Connection failed: %s", e.getMessage()));
+        }
+    }
+
+    /**
+     * Reads the first line byte by byte, so the requests after it stay in the stream.
+     */
+    private static byte[] readTokenLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            if (line.size() == MAX_TOKEN_LENGTH) {
+                return new byte[0];
+            }
+            line.write(b);
+        }
+        byte[] bytes = line.toByteArray();
+        return bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? Arrays.copyOf(bytes, bytes.length - 1) : bytes;
+    }
+
+    private static String readOrCreateToken(Path file) {
+        try {
+            if (Files.exists(file)) {
+                String token = Files.readString(file, StandardCharsets.UTF_8).trim();
+                if (token.isEmpty()) {
+                    throw new IllegalArgumentException(format("The token file '%s' is empty.", file));
+                }
+                return token;
+            }
+            byte[] random = new byte[TOKEN_BYTES];
+            new SecureRandom().nextBytes(random);
+            StringBuilder token = new StringBuilder(TOKEN_BYTES * 2);
+            for (byte b : random) {
+                token.append(format("%02x", b));
+            }
+            if (file.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+                Files.createFile(file, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+            } else {
+                Files.createFile(file);
+            }
+            Files.writeString(file, token, StandardCharsets.UTF_8);
+            return token.toString();
+        } catch (IOException e) {
+            throw new RuntimeException(format("Failed to read the token file '%s'", file), e);
+        }
+    }
+
+    private String handle(Map<String, Object> request) {
+        String operation = text(request, "op");
+        StringBuilder response = begin(request.get("id"));
+        switch (operation) {
+            case "analyze":
+                FileInformation information = analyzer.analyze(text(request, "path"), text(request, "word"));
+                response.append(",\"wordCount\":").append(information.getWordCount()).append(",\"sentences\":[");
+                boolean first = true;
+                for (String sentence : information) {
+                    if (!first) {
+                        response.append(',');
+                    }
+                    JsonLine.appendString(response, sentence);
+                    first = false;
+                }
+                response.append(']');
+                break;
+            case "count":
+                response.append(",\"files\":").append(FileManager.countFiles(text(request, "path")));
+                break;
+            case "copy":
+                CopyOptions options = CopyOptions.defaults()
+                        .incremental(Boolean.TRUE.equals(request.get("incremental")));
+                if (request.get("parallelism") instanceof Long) {
+                    options.parallelism(((Long) request.get("parallelism")).intValue());
+                }
+                OperationResult result = FileManager.copy(text(request, "from"), text(request, "to"), options);
+                response.append(",\"processedFiles\":").append(result.getProcessedFiles())
+                        .append(",\"processedBytes\":").append(result.getProcessedBytes())
+                        .append(",\"skippedFiles\":").append(result.getSkippedFiles())
+                        .append(",\"failures\":{");
+                boolean firstFailure = true;
+                for (Map.Entry<String, Exception> failure : result.getFailures().entrySet()) {
+                    if (!firstFailure) {
+                        response.append(',');
+                    }
+                    JsonLine.appendString(response, failure.getKey());
+                    response.append(':');
+                    JsonLine.appendString(response, String.valueOf(failure.getValue().getMessage()));
+                    firstFailure = false;
+                }
+                response.append('}');
+                break;
+            default:
+                throw new IllegalArgumentException(format("Unknown operation: %s", operation));
+        }
+        return response.append('}').toString();
+    }
+
+    private static String text(Map<String, Object> request, String key) {
+        Object value = request.get(key);
+        if (!(value instanceof String)) {
+            throw new IllegalArgumentException(format("The request should have a string \"%s\".", key));
+        }
+        return (String) value;
+    }
+
+    private static StringBuilder begin(Object id) {
+        StringBuilder response = new StringBuilder("{\"id\":");
+        JsonLine.appendValue(response, id);
+        return response;
+    }
+
+    private static String error(Object id, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        String message = cause.getMessage() != null ? cause.getMessage() : cause.getClass().getName();
+        StringBuilder response = begin(id).append(",\"error\":");
+        JsonLine.appendString(response, message);
+        return response.append('}').toString();
+    }
+
+    private static void write(Writer writer, String response) {
+        synchronized (writer) {
+            try {
+                writer.write(response);
+                writer.write('\n');
+                writer.flush();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.ukraine.dc.daemon;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.lang.String.format;
+
+/**
+ * Reads and writes the single-line JSON objects of the daemon protocol. Requests are flat
+ * objects whose values are strings, numbers, booleans or null; numbers are kept as longs.
+ */
+final class JsonLine {
+    private final String line;
+    private int position;
+
+    private JsonLine(String line) {
+        this.line = line;
+    }
+
+    static Map<String, Object> parse(String line) {
+        JsonLine parser = new JsonLine(line);
+        Map<String, Object> object = parser.readObject();
+        parser.skipWhitespace();
+        if (parser.position != line.length()) {
+            throw parser.error("Unexpected trailing content");
+        }
+        return object;
+    }
+
+    static void appendString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    static void appendValue(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else {
+            appendString(out, value.toString());
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        skipWhitespace();
+        expect('{');
+        Map<String, Object> object = new LinkedHashMap<>();
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private Object readValue() {
+        char c = peek();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '-' || (c >= '0' && c <= '9')) {
+            return readNumber();
+        }
+        if (line.startsWith("true", position)) {
+            position += 4;
+            return Boolean.TRUE;
+        }
+        if (line.startsWith("false", position)) {
+            position += 5;
+            return Boolean.FALSE;
+        }
+        if (line.startsWith("null", position)) {
+            position += 4;
+            return null;
+        }
+        throw error("Unsupported value");
+    }
+
+    private Long readNumber() {
+        int start = position;
+        if (peek() == '-') {
+            position++;
+        }
+        while (position < line.length() && Character.isDigit(line.charAt(position))) {
+            position++;
+        }
+        try {
+            return Long.parseLong(line.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Expected an integer");
+        }
+    }
+
+    private String readString() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > line.length()) {
+                        throw error("Truncated unicode escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(line.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid unicode escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape");
+            }
+        }
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error(format("Expected '%s'", expected));
+        }
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private char peek() {
+        if (position >= line.length()) {
+            throw error("Unexpected end of line");
+        }
+        return line.charAt(position);
+    }
+
+    private void skipWhitespace() {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(format("%s at column %d.", message, position + 1));
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.ukraine.dc.manager;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.String.format;
+
+/**
+ * Text manifest of CRC32C checksums: one "checksum  relative/path" line per file, sorted by path.
+ */
+final class ChecksumManifest {
+    private static final String SEPARATOR = "  ";
+
+    private ChecksumManifest() {
+    }
+
+    static void write(Path manifest, Map<String, Long> checksums) {
+        try (BufferedWriter writer = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : new TreeMap<>(checksums).entrySet()) {
+                writer.write(format("%08x", entry.getValue()));
+                writer.write(SEPARATOR);
+                writer.write(entry.getKey());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static Map<String, Long> read(Path manifest) {
+        Map<String, Long> checksums = new TreeMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(manifest, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.indexOf(SEPARATOR);
+                if (separator == -1) {
+                    throw new RuntimeException(format("Invalid manifest line: '%s'", line));
+                }
+                checksums.put(line.substring(separator + SEPARATOR.length()), Long.parseLong(line.substring(0, separator), 16));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return checksums;
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.ukraine.dc.manager;
+
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.OperationListener;
+
+/**
+ * Options of the parallel copy and move operations.
+ */
+public final class CopyOptions {
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1024;
+    private boolean incremental;
+    private boolean compareContent;
+    private long deltaThreshold = 8L * 1024 * 1024;
+    private int blockSize = 64 * 1024;
+    private String checksumManifest;
+    private boolean linkDuplicates;
+    private OperationListener listener = OperationListener.NONE;
+    private CancellationToken cancellationToken = CancellationToken.NONE;
+
+    public static CopyOptions defaults() {
+        return new CopyOptions();
+    }
+
+    /**
+     * Number of worker threads copying files.
+     */
+    public CopyOptions parallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be positive.");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Number of files the traversal may queue ahead of the workers before it blocks.
+     */
+    public CopyOptions queueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity should be positive.");
+        }
+        this.queueCapacity = queueCapacity;
+        return this;
+    }
+
+    /**
+     * Skips destination files that already match the source by size and modification time.
+     */
+    public CopyOptions incremental(boolean incremental) {
+        this.incremental = incremental;
+        return this;
+    }
+
+    /**
+     * In incremental mode, decides whether a same-size file is unchanged by comparing its
+     * content instead of its modification time.
+     */
+    public CopyOptions compareContent(boolean compareContent) {
+        this.compareContent = compareContent;
+        return this;
+    }
+
+    /**
+     * In incremental mode, changed files of at least this size only get their differing blocks rewritten.
+     */
+    public CopyOptions deltaThreshold(long deltaThreshold) {
+        if (deltaThreshold < 0) {
+            throw new IllegalArgumentException("The delta threshold shouldn't be negative.");
+        }
+        this.deltaThreshold = deltaThreshold;
+        return this;
+    }
+
+    public CopyOptions blockSize(int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("The block size should be positive.");
+        }
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    /**
+     * Computes a CRC32C of every file while it is copied and writes the checksums, relative
+     * to the destination directory, to this manifest once the copy is finished.
+     */
+    public CopyOptions checksumManifest(String checksumManifest) {
+        this.checksumManifest = checksumManifest;
+        return this;
+    }
+
+    /**
+     * Hard-links a file to an identical file already copied by the same operation instead of
+     * writing its bytes again. Every source file is hashed before it is copied.
+     */
+    public CopyOptions linkDuplicates(boolean linkDuplicates) {
+        this.linkDuplicates = linkDuplicates;
+        return this;
+    }
+
+    /**
+     * Receives every copied file, the bytes read and written and the copy time per file.
+     */
+    public CopyOptions listener(OperationListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("The listener shouldn't be null.");
+        }
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Stops the operation between files and between chunks of a file once the token is cancelled.
+     */
+    public CopyOptions cancellationToken(CancellationToken cancellationToken) {
+        if (cancellationToken == null) {
+            throw new IllegalArgumentException("The cancellation token shouldn't be null.");
+        }
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
+    /**
+     * Returns a copy of these options that carries the token, leaving this object unchanged,
+     * so one options object can be shared by operations that are cancelled separately.
+     */
+    public CopyOptions withCancellationToken(CancellationToken cancellationToken) {
+        CopyOptions copy = new CopyOptions();
+        copy.parallelism = parallelism;
+        copy.queueCapacity = queueCapacity;
+        copy.incremental = incremental;
+        copy.compareContent = compareContent;
+        copy.deltaThreshold = deltaThreshold;
+        copy.blockSize = blockSize;
+        copy.checksumManifest = checksumManifest;
+        copy.linkDuplicates = linkDuplicates;
+        copy.listener = listener;
+        return copy.cancellationToken(cancellationToken);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public boolean isCompareContent() {
+        return compareContent;
+    }
+
+    public long getDeltaThreshold() {
+        return deltaThreshold;
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public String getChecksumManifest() {
+        return checksumManifest;
+    }
+
+    public boolean isLinkDuplicates() {
+        return linkDuplicates;
+    }
+
+    public OperationListener getListener() {
+        return listener;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+}
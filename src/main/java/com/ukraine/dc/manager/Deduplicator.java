@@ -0,0 +1,217 @@
+package com.ukraine.dc.manager;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.zip.CRC32C;
+
+import static java.lang.String.format;
+
+/**
+ * Finds files with identical content in three rounds that each only look at the candidates
+ * left by the previous one: same size, then the same CRC32C of the first and last 4 KB, and
+ * finally the same SHA-256 of the whole content. Hashing runs on a fixed worker pool.
+ */
+final class Deduplicator {
+    private static final int EDGE_SIZE = 4096;
+    private static final int TEMP_NAME_ATTEMPTS = 16;
+
+    private final int parallelism;
+    private final Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+
+    Deduplicator(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    DuplicateReport find(Path root) {
+        Map<Long, List<Path>> bySize = new HashMap<>();
+        Map<Path, Long> sizes = new HashMap<>();
+        Map<Path, Long> modified = new HashMap<>();
+        Map<Path, byte[]> digests = new ConcurrentHashMap<>();
+        Set<Object> fileKeys = new HashSet<>();
+        DirectoryWalker.walkFiles(root, (file, attributes) -> {
+            Object key = attributes.fileKey();
+            if (attributes.size() > 0 && (key == null || fileKeys.add(key))) {
+                bySize.computeIfAbsent(attributes.size(), size -> new ArrayList<>()).add(file);
+                sizes.put(file, attributes.size());
+                modified.put(file, attributes.lastModifiedTime().toMillis());
+            }
+        });
+
+        List<DuplicateReport.DuplicateSet> sets = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<List<Path>> candidates = candidates(bySize.values());
+            List<List<Path>> sameEdges = regroup(executor, candidates, Deduplicator::edgeHash);
+            List<List<Path>> sameContent = regroup(executor, sameEdges, path -> {
+                byte[] digest = FileManager.digest(path);
+                digests.put(path, digest);
+                return ByteBuffer.wrap(digest);
+            });
+            for (List<Path> group : sameContent) {
+                group.sort(Comparator.naturalOrder());
+                Map<Path, Long> groupModified = new HashMap<>();
+                for (Path path : group) {
+                    groupModified.put(path, modified.get(path));
+                }
+                sets.add(new DuplicateReport.DuplicateSet(sizes.get(group.get(0)), group,
+                        digests.get(group.get(0)), groupModified));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        sets.sort(Comparator.comparingLong(DuplicateReport.DuplicateSet::getReclaimableBytes).reversed()
+                .thenComparing(set -> set.getPaths().get(0)));
+        return new DuplicateReport(sets, failures);
+    }
+
+    /**
+     * Replaces every file but the first of each set with a hard link to the first one. The link
+     * is created under a temporary name and renamed over the duplicate, so a failure leaves the
+     * duplicate as it was. Files whose modification time or content changed since the scan are
+     * left alone and reported. A linked duplicate shares the first file's inode, so it takes that
+     * file's owner, permissions and modification time.
+     */
+    OperationResult link(DuplicateReport report) {
+        Map<String, Exception> linkFailures = new TreeMap<>();
+        long linked = 0;
+        long bytes = 0;
+        for (DuplicateReport.DuplicateSet set : report.getDuplicateSets()) {
+            Path original = set.getPaths().get(0);
+            Exception originalChanged = null;
+            try {
+                checkUnchanged(original, set, true);
+            } catch (IOException | RuntimeException e) {
+                originalChanged = e;
+            }
+            for (Path duplicate : set.getPaths().subList(1, set.getPaths().size())) {
+                if (originalChanged != null) {
+                    linkFailures.put(duplicate.toString(), originalChanged);
+                    continue;
+                }
+                Path temp = null;
+                try {
+                    checkUnchanged(duplicate, set, true);
+                    temp = createTempLink(duplicate, original);
+                    checkUnchanged(original, set, false);
+                    checkUnchanged(duplicate, set, false);
+                    Files.move(temp, duplicate, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    linked++;
+                    bytes += set.getSize();
+                } catch (IOException | RuntimeException e) {
+                    linkFailures.put(duplicate.toString(), e);
+                    if (temp != null) {
+                        try {
+                            Files.deleteIfExists(temp);
+                        } catch (IOException ignored) {
+                            // the failure of the link itself is already reported
+                        }
+                    }
+                }
+            }
+        }
+        return new OperationResult(linked, bytes, linkFailures);
+    }
+
+    /**
+     * Checks the file still has the size and modification time of the scan and, when asked,
+     * the content digest, which costs a full read.
+     */
+    private static void checkUnchanged(Path file, DuplicateReport.DuplicateSet set, boolean content) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (attributes.size() != set.getSize() || attributes.lastModifiedTime().toMillis() != set.getModified(file)
+                || (content && !Arrays.equals(FileManager.digest(file), set.getDigest()))) {
+            throw new IOException(format("The file '%s' changed after it was compared.", file));
+        }
+    }
+
+    /**
+     * Creates a hard link to the original next to the duplicate under a name that no other file
+     * has, so an existing file is never taken for the link.
+     */
+    private static Path createTempLink(Path duplicate, Path original) throws IOException {
+        for (int attempt = 0; ; attempt++) {
+            Path temp = duplicate.resolveSibling(format(".%s.%016x.link.tmp",
+                    duplicate.getFileName(), ThreadLocalRandom.current().nextLong()));
+            try {
+                return Files.createLink(temp, original);
+            } catch (FileAlreadyExistsException e) {
+                if (attempt == TEMP_NAME_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private static List<List<Path>> candidates(Collection<List<Path>> groups) {
+        List<List<Path>> candidates = new ArrayList<>();
+        for (List<Path> group : groups) {
+            if (group.size() > 1) {
+                candidates.add(group);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Splits every group by the key computed on the pool and keeps the subgroups that still
+     * hold more than one file. Unreadable files are reported and left out.
+     */
+    private List<List<Path>> regroup(ExecutorService executor, List<List<Path>> groups, HashFunction hash) {
+        Map<Path, Future<Object>> keys = new HashMap<>();
+        for (List<Path> group : groups) {
+            for (Path path : group) {
+                keys.put(path, executor.submit(() -> hash.apply(path)));
+            }
+        }
+        List<List<Path>> result = new ArrayList<>();
+        for (List<Path> group : groups) {
+            Map<Object, List<Path>> byKey = new LinkedHashMap<>();
+            for (Path path : group) {
+                try {
+                    byKey.computeIfAbsent(keys.get(path).get(), key -> new ArrayList<>()).add(path);
+                } catch (ExecutionException e) {
+                    failures.put(path.toString(), e.getCause() instanceof Exception ? (Exception) e.getCause() : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(e);
+                }
+            }
+            result.addAll(candidates(byKey.values()));
+        }
+        return result;
+    }
+
+    private static Object edgeHash(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            CRC32C head = new CRC32C();
+            CRC32C tail = new CRC32C();
+            head.update(read(channel, 0, (int) Math.min(EDGE_SIZE, size)));
+            if (size > EDGE_SIZE) {
+                long start = Math.max(EDGE_SIZE, size - EDGE_SIZE);
+                tail.update(read(channel, start, (int) (size - start)));
+            }
+            return head.getValue() << 32 | tail.getValue();
+        }
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining() && channel.read(buffer, position + buffer.position()) != -1) {
+            // keep reading until the whole range is in the buffer
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @FunctionalInterface
+    private interface HashFunction {
+        Object apply(Path path) throws IOException;
+    }
+
+}
@@ -0,0 +1,101 @@
+package com.ukraine.dc.manager;
+
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * File count, directory count, total size and the largest files of a tree, gathered in one walk.
+ * Symbolic links are not followed and are counted as files.
+ */
+public class DirectoryStats {
+    private static final Comparator<FileSize> BY_SIZE =
+            Comparator.comparingLong(FileSize::getSize).thenComparing(f -> f.getPath().toString(), Comparator.reverseOrder());
+
+    private final int largestLimit;
+    private final PriorityQueue<FileSize> largest;
+    private long fileCount;
+    private long directoryCount;
+    private long totalBytes;
+
+    DirectoryStats(int largestLimit) {
+        this.largestLimit = largestLimit;
+        this.largest = new PriorityQueue<>(BY_SIZE);
+    }
+
+    void addDirectory() {
+        directoryCount++;
+    }
+
+    void addFile(Path path, long size) {
+        fileCount++;
+        totalBytes += size;
+        offer(new FileSize(path, size));
+    }
+
+    DirectoryStats merge(DirectoryStats other) {
+        fileCount += other.fileCount;
+        directoryCount += other.directoryCount;
+        totalBytes += other.totalBytes;
+        other.largest.forEach(this::offer);
+        return this;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * The number of directories, including the root one.
+     */
+    public long getDirectoryCount() {
+        return directoryCount;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    /**
+     * The largest files, biggest first.
+     */
+    public List<FileSize> getLargestFiles() {
+        List<FileSize> result = new ArrayList<>(largest);
+        result.sort(BY_SIZE.reversed());
+        return result;
+    }
+
+    private void offer(FileSize file) {
+        if (largestLimit == 0) {
+            return;
+        }
+        if (largest.size() < largestLimit) {
+            largest.add(file);
+        } else if (BY_SIZE.compare(file, largest.peek()) > 0) {
+            largest.poll();
+            largest.add(file);
+        }
+    }
+
+    public static class FileSize {
+        private final Path path;
+        private final long size;
+
+        FileSize(Path path, long size) {
+            this.path = path;
+            this.size = size;
+        }
+
+        public Path getPath() {
+            return path;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        @Override
+        public String toString() {
+            return path + " (" + size + " bytes)";
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.ukraine.dc.manager;
+
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.OperationListener;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+
+/**
+ * Single-pass directory traversals that read each entry's attributes once and never modify them.
+ */
+final class DirectoryWalker {
+
+    private DirectoryWalker() {
+    }
+
+    static DirectoryStats stats(Path root, int largestLimit) {
+        return stats(root, largestLimit, CancellationToken.NONE);
+    }
+
+    static DirectoryStats stats(Path root, int largestLimit, CancellationToken token) {
+        return stats(root, largestLimit, token, OperationListener.NONE);
+    }
+
+    /**
+     * Walks the tree on the calling thread, reporting every counted file as started and completed.
+     */
+    static DirectoryStats stats(Path root, int largestLimit, CancellationToken token, OperationListener listener) {
+        DirectoryStats stats = new DirectoryStats(largestLimit);
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    token.throwIfCancelled();
+                    stats.addDirectory();
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    token.throwIfCancelled();
+                    stats.addFile(file, attrs.size());
+                    listener.fileStarted(file, attrs.size());
+                    listener.fileCompleted(file, attrs.size());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    if (Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS)) {
+                        stats.addDirectory();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return stats;
+    }
+
+    /**
+     * Counts what a rename moved from the source to the target, a file or a whole tree, and
+     * reports every file under its source path as started and completed.
+     */
+    static DirectoryStats moved(Path source, Path target, OperationListener listener) {
+        OperationListener relocated = listener == OperationListener.NONE ? listener : new OperationListener() {
+            @Override
+            public void fileStarted(Path file, long size) {
+                listener.fileStarted(source.resolve(target.relativize(file).toString()), size);
+            }
+
+            @Override
+            public void fileCompleted(Path file, long bytes) {
+                listener.fileCompleted(source.resolve(target.relativize(file).toString()), bytes);
+            }
+        };
+        return stats(target, 0, CancellationToken.NONE, relocated);
+    }
+
+    static void walkFiles(Path root, BiConsumer<Path, BasicFileAttributes> consumer) {
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        consumer.accept(file, attrs);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static DirectoryStats parallelStats(Path root, int largestLimit, int parallelism) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(root, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        if (!attributes.isDirectory()) {
+            DirectoryStats stats = new DirectoryStats(largestLimit);
+            stats.addFile(root, attributes.size());
+            return stats;
+        }
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.invoke(new StatsTask(root, largestLimit));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static class StatsTask extends RecursiveTask<DirectoryStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Path directory;
+        private final int largestLimit;
+
+        StatsTask(Path directory, int largestLimit) {
+            this.directory = directory;
+            this.largestLimit = largestLimit;
+        }
+
+        @Override
+        protected DirectoryStats compute() {
+            DirectoryStats stats = new DirectoryStats(largestLimit);
+            stats.addDirectory();
+            List<StatsTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+                for (Path entry : entries) {
+                    BasicFileAttributes attributes;
+                    try {
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (attributes.isDirectory()) {
+                        StatsTask subtask = new StatsTask(entry, largestLimit);
+                        subtask.fork();
+                        subtasks.add(subtask);
+                    } else {
+                        stats.addFile(entry, attributes.size());
+                    }
+                }
+            } catch (IOException e) {
+                // an unreadable directory is counted but not descended into, like the sequential walk
+            }
+            for (StatsTask subtask : subtasks) {
+                stats.merge(subtask.join());
+            }
+            return stats;
+        }
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.ukraine.dc.manager;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sets of files with identical content found in a tree, and the files that couldn't be read.
+ */
+public class DuplicateReport {
+    private final List<DuplicateSet> duplicateSets;
+    private final Map<String, Exception> failures;
+
+    DuplicateReport(List<DuplicateSet> duplicateSets, Map<String, Exception> failures) {
+        this.duplicateSets = Collections.unmodifiableList(duplicateSets);
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * The duplicate sets, the ones that waste the most space first.
+     */
+    public List<DuplicateSet> getDuplicateSets() {
+        return duplicateSets;
+    }
+
+    /**
+     * The number of files that could be replaced by a link to the first file of their set.
+     */
+    public long getDuplicateFiles() {
+        return duplicateSets.stream().mapToLong(set -> set.getPaths().size() - 1).sum();
+    }
+
+    public long getReclaimableBytes() {
+        return duplicateSets.stream().mapToLong(DuplicateSet::getReclaimableBytes).sum();
+    }
+
+    public Map<String, Exception> getFailures() {
+        return failures;
+    }
+
+    /**
+     * Files of the same size and content, sorted by path; files that already share one inode
+     * are listed once.
+     */
+    public static class DuplicateSet {
+        private final long size;
+        private final List<Path> paths;
+        private final byte[] digest;
+        private final Map<Path, Long> modified;
+
+        DuplicateSet(long size, List<Path> paths, byte[] digest, Map<Path, Long> modified) {
+            this.size = size;
+            this.paths = Collections.unmodifiableList(paths);
+            this.digest = digest;
+            this.modified = modified;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public List<Path> getPaths() {
+            return paths;
+        }
+
+        public long getReclaimableBytes() {
+            return size * (paths.size() - 1);
+        }
+
+        /**
+         * The SHA-256 of the content all the files had when they were compared.
+         */
+        byte[] getDigest() {
+            return digest;
+        }
+
+        /**
+         * The modification time in milliseconds the file had when it was compared.
+         */
+        long getModified(Path path) {
+            return modified.get(path);
+        }
+
+        @Override
+        public String toString() {
+            return size + " " + paths;
+        }
+    }
+}
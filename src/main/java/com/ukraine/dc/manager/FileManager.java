@@ -1,51 +1,158 @@
 package com.ukraine.dc.manager;
 
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.FileProgress;
+import com.ukraine.dc.operation.OperationListener;
+import com.ukraine.dc.operation.Phase;
+import com.ukraine.dc.operation.PhaseTimer;
+
 import java.io.*;
-import java.util.Objects;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
 
 import static java.lang.String.format;
+import static java.nio.file.StandardOpenOption.*;
 
 /**
  * The type FileManager.
  */
 public final class FileManager {
+    private static final int COPY_BUFFER_SIZE = 1024 * 1024;
+    private static final int DEFAULT_LARGEST_FILES = 10;
+    private static final long TRANSFER_CHUNK_SIZE = 64L * 1024 * 1024;
+    private static final ThreadLocal<ByteBuffer> COPY_BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(COPY_BUFFER_SIZE));
 
     private FileManager() {
     }
 
     public static int countDirs(String path) {
-        int counter = 0;
         File file = new File(path);
-        if (file.isDirectory()) {
-            counter++;
-            counter += countDirsRecursively(file.listFiles());
-        }
-        return counter;
+        return file.isDirectory() ? (int) stats(path).getDirectoryCount() : 0;
     }
 
     public static int countFiles(String path) {
-        int counter = 0;
+        return countFiles(path, CancellationToken.NONE);
+    }
+
+    /**
+     * Counts the files like {@link #countFiles(String)}, stopping the walk once the token is cancelled.
+     */
+    public static int countFiles(String path, CancellationToken token) {
+        return countFiles(path, token, OperationListener.NONE);
+    }
+
+    /**
+     * Counts the files like {@link #countFiles(String)}, reporting every counted file with its
+     * size to the listener as a completed file.
+     */
+    public static int countFiles(String path, OperationListener listener) {
+        return countFiles(path, CancellationToken.NONE, listener);
+    }
+
+    private static int countFiles(String path, CancellationToken token, OperationListener listener) {
         File file = new File(path);
-        file.setReadable(true);
-        if (file.isDirectory()) {
-            counter += countFilesRecursively(file.listFiles());
-        } else {
-            counter++;
+        if (!file.isDirectory()) {
+            listener.fileStarted(file.toPath(), file.length());
+            listener.fileCompleted(file.toPath(), file.length());
+            return 1;
         }
-        return counter;
+        validatePath(file);
+        return (int) DirectoryWalker.stats(file.toPath(), 0, token, listener).getFileCount();
+    }
+
+    /**
+     * Collects the statistics of the tree in a single walk, keeping the 10 largest files.
+     */
+    public static DirectoryStats stats(String path) {
+        return stats(path, DEFAULT_LARGEST_FILES, 1);
+    }
+
+    /**
+     * Collects the statistics of the tree; with parallelism above one, subdirectories are
+     * listed concurrently on a ForkJoinPool.
+     */
+    public static DirectoryStats stats(String path, int largestFiles, int parallelism) {
+        File file = new File(path);
+        validatePath(file);
+        if (largestFiles < 0 || parallelism < 1) {
+            throw new IllegalArgumentException("The 'largestFiles' shouldn't be negative and 'parallelism' should be positive.");
+        }
+        if (parallelism == 1) {
+            return DirectoryWalker.stats(file.toPath(), largestFiles);
+        }
+        return DirectoryWalker.parallelStats(file.toPath(), largestFiles, parallelism);
+    }
+
+    /**
+     * Walks the tree once and hands every regular file with its attributes to the consumer,
+     * on the calling thread. Unreadable entries are skipped and links are not followed.
+     */
+    public static void walkFiles(String path, BiConsumer<Path, BasicFileAttributes> consumer) {
+        File file = new File(path);
+        validatePath(file);
+        DirectoryWalker.walkFiles(file.toPath(), consumer);
     }
 
     public static void move(String from, String to) {
+        move(from, to, OperationListener.NONE);
+    }
+
+    /**
+     * Moves like {@link #move(String, String)}, reporting every renamed or copied file to the
+     * listener; only copied files read and write bytes, and the files of a directory renamed
+     * in one step aren't reported.
+     */
+    public static void move(String from, String to, OperationListener listener) {
+        File source = new File(from);
+        File destination = new File(to);
+        if (!destination.isDirectory()) {
+            throw new RuntimeException("Invalid parameter 'to' - it's not a directory.");
+        }
+        validatePath(source);
+        checkReadPermission(source);
+        try {
+            moveEntry(source.toPath(), destination.toPath().resolve(source.getName()), listener);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Moves like {@link #move(String, String)}, renaming entries where possible; files that
+     * can't be renamed are copied on a worker pool, verified and only then deleted. Failures
+     * are reported per file and the sources that failed are kept.
+     */
+    public static OperationResult move(String from, String to, CopyOptions options) {
         File source = new File(from);
         File destination = new File(to);
         if (!destination.isDirectory()) {
             throw new RuntimeException("Invalid parameter 'to' - it's not a directory.");
         }
-        copy(source.getAbsolutePath(), destination.getAbsolutePath());
-        deleteFiles(source);
+        validatePath(source);
+        checkReadPermission(source);
+        return new ParallelCopier(options, true).move(source, new File(destination, source.getName()), destination);
     }
 
     public static void copy(String from, String to) {
+        copy(from, to, OperationListener.NONE);
+    }
+
+    /**
+     * Copies like {@link #copy(String, String)}, reporting every file, its bytes chunk by chunk
+     * and its copy time to the listener.
+     */
+    public static void copy(String from, String to, OperationListener listener) {
         File source = new File(from);
         File destination = new File(to);
 
@@ -60,10 +167,33 @@ public final class FileManager {
         }
 
         checkReadPermission(source);
-        copyRecursively(source, destination);
+        copyRecursively(source, destination, listener);
+    }
+
+    /**
+     * Copies like {@link #copy(String, String)} but on a worker pool, collecting per-file failures.
+     */
+    public static OperationResult copy(String from, String to, CopyOptions options) {
+        return copy(new File(from), new File(to), options);
+    }
+
+    private static OperationResult copy(File source, File destination, CopyOptions options) {
+        validatePath(source);
+        validatePath(destination);
+        File base = destination;
+
+        if (source.isDirectory()) {
+            destination = new File(destination, source.getName());
+            if (!destination.exists()) {
+                destination.mkdir();
+            }
+        }
+
+        checkReadPermission(source);
+        return new ParallelCopier(options, false).copy(source, destination, base);
     }
 
-    private static void copyRecursively(File source, File destination) {
+    private static void copyRecursively(File source, File destination, OperationListener listener) {
         String[] files = source.list();
         if (files != null && files.length != 0) {
             for (String nestedFile : files) {
@@ -73,98 +203,354 @@ public final class FileManager {
                     if (!dest.exists()) {
                         dest.mkdir();
                     }
-                    copyRecursively(file, dest);
+                    copyRecursively(file, dest, listener);
                 } else {
-                    handleFile(file, destination);
+                    copyFile(file, destination, listener);
                 }
             }
         } else if (source.isFile()) {
             source.setReadable(true);
-            handleFile(source, destination);
+            copyFile(source, destination, listener);
+        }
+    }
+
+    private static void copyFile(File from, File to, OperationListener listener) {
+        if (listener == OperationListener.NONE) {
+            handleFile(from, to);
+            return;
         }
+        observedCopy(from, listener, progress -> handleFile(from, to, null, CancellationToken.NONE, progress));
+    }
+
+    /**
+     * Reports the copy of one file to the listener: its start, bytes, copy time and outcome.
+     */
+    private static void observedCopy(File file, OperationListener listener, Consumer<FileProgress> copy) {
+        Path path = file.toPath();
+        long size = file.length();
+        listener.fileStarted(path, size);
+        try {
+            PhaseTimer timer = new PhaseTimer(listener);
+            FileProgress progress = new FileProgress(listener);
+            copy.accept(progress);
+            timer.complete(Phase.COPY);
+            progress.complete(size, size);
+            listener.fileCompleted(path, size);
+        } catch (RuntimeException e) {
+            listener.fileFailed(path, e);
+            throw e;
+        }
+    }
+
+    static void handleFile(File from, File to) {
+        handleFile(from, to, null);
+    }
+
+    /**
+     * Copies the file into the directory; a non-null checksum is updated with the copied bytes.
+     */
+    static void handleFile(File from, File to, CRC32C checksum) {
+        handleFile(from, to, checksum, CancellationToken.NONE);
+    }
+
+    /**
+     * Copies the file into the directory, checking the token between chunks; a partially
+     * copied file is removed when the copy is cancelled.
+     */
+    static void handleFile(File from, File to, CRC32C checksum, CancellationToken token) {
+        handleFile(from, to, checksum, token, FileProgress.NONE);
     }
 
-    private static void handleFile(File from, File to) {
+    /**
+     * Copies like {@link #handleFile(File, File, CRC32C, CancellationToken)}, reporting the bytes
+     * of every chunk to the progress as soon as it is written.
+     */
+    static void handleFile(File from, File to, CRC32C checksum, CancellationToken token, FileProgress progress) {
         File destination = new File(to.getAbsolutePath(), from.getName());
+        if (destination.exists()) {
+            unlinkShared(destination.toPath());
+            destination.setWritable(true);
+        }
         try {
-            if (!destination.exists()) {
-                destination.createNewFile();
+            copyFileContent(from, destination, checksum, token, progress);
+        } catch (CancellationException e) {
+            destination.delete();
+            throw e;
+        }
+    }
+
+    private static void copyFileContent(File sourcePath, File destination, CRC32C checksum, CancellationToken token,
+                                        FileProgress progress) {
+        try (FileChannel source = FileChannel.open(sourcePath.toPath(), READ);
+             FileChannel target = FileChannel.open(destination.toPath(), WRITE, CREATE, TRUNCATE_EXISTING)) {
+            if (checksum != null) {
+                copyRemaining(source, target, 0, checksum, token, progress);
+                return;
+            }
+            long size = source.size();
+            long position = 0;
+            while (position < size) {
+                token.throwIfCancelled();
+                long transferred = source.transferTo(position, Math.min(size - position, TRANSFER_CHUNK_SIZE), target);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                progress.read(transferred);
+                progress.written(transferred);
+            }
+            if (position < size) {
+                copyRemaining(source, target, position, null, token, progress);
             }
-            destination.setWritable(true);
-            copyFileContent(from, destination);
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private static void copyFileContent(File sourcePath, File destination) {
-        try (InputStream inputStream = new FileInputStream(sourcePath);
-             OutputStream outputStream = new FileOutputStream(destination)) {
-            int count;
-            byte[] buffer = new byte[512];
-            while ((count = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, count);
+    /**
+     * Copies through a large buffer, used when the data has to pass through user space to be
+     * checksummed or when transferTo stops making progress.
+     */
+    private static void copyRemaining(FileChannel source, FileChannel target, long position, CRC32C checksum,
+                                      CancellationToken token, FileProgress progress) throws IOException {
+        ByteBuffer buffer = COPY_BUFFER.get();
+        buffer.clear();
+        while (source.read(buffer, position) != -1) {
+            token.throwIfCancelled();
+            buffer.flip();
+            progress.read(buffer.remaining());
+            progress.written(buffer.remaining());
+            if (checksum != null) {
+                buffer.mark();
+                checksum.update(buffer);
+                buffer.reset();
+            }
+            while (buffer.hasRemaining()) {
+                position += target.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Removes a destination that shares its inode with other hard links, such as a file replaced
+     * by a link to its duplicate, so that writing the new content doesn't change the other links.
+     */
+    static void unlinkShared(Path destination) {
+        try {
+            if (isHardLinked(destination)) {
+                Files.delete(destination);
             }
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw new RuntimeException(format("Failed to unlink '%s'", destination), e);
         }
     }
 
-    private static void validatePath(File file) {
-        if (!file.exists()) {
-            throw new RuntimeException(format("The path '%s' is not present. Please specify a valid one.", file.getAbsolutePath()));
+    /**
+     * Tells whether the regular file has more than one hard link; without the unix attribute
+     * view the link count is unknown and the file is treated as linked.
+     */
+    static boolean isHardLinked(Path path) throws IOException {
+        if (!Files.isRegularFile(path, LinkOption.NOFOLLOW_LINKS)) {
+            return false;
+        }
+        try {
+            return ((Number) Files.getAttribute(path, "unix:nlink", LinkOption.NOFOLLOW_LINKS)).intValue() > 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return true;
         }
     }
 
-    private static void checkReadPermission(File file) {
-        if (!file.canRead()) {
-            throw new RuntimeException(format("No permission to read file by this path: %s", file.getAbsolutePath()));
+    /**
+     * Renames the entry when possible. Only when the rename crosses a file system boundary,
+     * or the target directory already exists and has to be merged, the entry is handled
+     * one level deeper; files are then copied, verified and only afterwards deleted.
+     */
+    private static void moveEntry(Path source, Path target, OperationListener listener) throws IOException {
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
+        if ((!directory || Files.notExists(target, LinkOption.NOFOLLOW_LINKS)) && tryRename(source, target)) {
+            if (listener != OperationListener.NONE) {
+                DirectoryWalker.moved(source, target, listener);
+            }
+            return;
+        }
+        if (directory) {
+            if (!Files.isDirectory(target)) {
+                Files.createDirectory(target);
+            }
+            try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+                for (Path entry : entries) {
+                    moveEntry(entry, target.resolve(entry.getFileName().toString()), listener);
+                }
+            }
+        } else {
+            CRC32C sourceChecksum = new CRC32C();
+            File parent = target.getParent().toFile();
+            if (listener == OperationListener.NONE) {
+                handleFile(source.toFile(), parent, sourceChecksum);
+            } else {
+                observedCopy(source.toFile(), listener,
+                        progress -> handleFile(source.toFile(), parent, sourceChecksum, CancellationToken.NONE, progress));
+            }
+            if (Files.size(source) != Files.size(target) || sourceChecksum.getValue() != checksum(target)) {
+                throw new RuntimeException(format("The copy of '%s' doesn't match the source, the source is kept.", source));
+            }
         }
+        Files.delete(source);
     }
 
-    private static int countFilesRecursively(File[] files) {
-        int counter = 0;
+    static boolean tryRename(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (AtomicMoveNotSupportedException e) {
+            return false;
+        }
+    }
 
-        if (files != null) {
-            for (File file : files) {
-                file.setReadable(true);
-                if (file.isDirectory()) {
-                    counter += countFilesRecursively(file.listFiles());
-                } else {
-                    counter++;
-                }
+    /**
+     * Returns the SHA-256 of the file content.
+     */
+    static byte[] digest(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        ByteBuffer buffer = COPY_BUFFER.get();
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
             }
         }
+        return digest.digest();
+    }
 
-        return counter;
+    static long checksum(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        updateChecksum(path, crc);
+        return crc.getValue();
     }
 
-    private static int countDirsRecursively(File[] files) {
-        int counter = 0;
-        if (files != null) {
-            for (File file : files) {
-                if (file.isDirectory()) {
-                    counter++;
-                    counter += countDirsRecursively(file.listFiles());
-                }
+    static void updateChecksum(Path path, CRC32C checksum) throws IOException {
+        ByteBuffer buffer = COPY_BUFFER.get();
+        buffer.clear();
+        try (FileChannel channel = FileChannel.open(path, READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                checksum.update(buffer);
+                buffer.clear();
             }
         }
-        return counter;
     }
 
-    public static void deleteFiles(File file) {
-        if (file.isFile()) {
-            file.delete();
-        } else {
-            File[] files = file.listFiles();
-            for (File nestedFile : Objects.requireNonNull(files)) {
-                if (nestedFile.isDirectory()) {
-                    deleteFiles(nestedFile);
+    /**
+     * Finds files with identical content in the tree, comparing sizes first, then the first and
+     * last 4 KB and only then the full content, with the hashing spread over the given threads.
+     */
+    public static DuplicateReport findDuplicates(String path, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be positive.");
+        }
+        File file = new File(path);
+        validatePath(file);
+        return new Deduplicator(parallelism).find(file.toPath());
+    }
+
+    /**
+     * Replaces the duplicates of the report with hard links to the first file of their set and
+     * returns the number of linked files and the bytes reclaimed.
+     */
+    public static OperationResult linkDuplicates(DuplicateReport report) {
+        return new Deduplicator(1).link(report);
+    }
+
+    /**
+     * Reads every file listed in the manifest written by a checksummed copy once and compares
+     * its CRC32C; missing and mismatching files are reported as failures.
+     */
+    public static OperationResult verify(String directory, String manifest) {
+        File root = new File(directory);
+        validatePath(root);
+        validatePath(new File(manifest));
+        Map<String, Long> expected = ChecksumManifest.read(Paths.get(manifest));
+        Map<String, Exception> failures = new TreeMap<>();
+        long verified = 0;
+        long bytes = 0;
+        for (Map.Entry<String, Long> entry : expected.entrySet()) {
+            Path path = root.toPath().resolve(entry.getKey());
+            try {
+                long actual = checksum(path);
+                if (actual != entry.getValue()) {
+                    failures.put(path.toString(), new RuntimeException(format("Checksum mismatch for '%s': expected %08x, actual %08x.",
+                            path, entry.getValue(), actual)));
+                } else {
+                    verified++;
+                    bytes += Files.size(path);
                 }
-                nestedFile.delete();
+            } catch (IOException e) {
+                failures.put(path.toString(), e);
             }
-            file.delete();
         }
+        return new OperationResult(verified, bytes, failures);
+    }
+
+    private static void validatePath(File file) {
+        if (!file.exists()) {
+            throw new RuntimeException(format("The path '%s' is not present. Please specify a valid one.", file.getAbsolutePath()));
+        }
+    }
+
+    private static void checkReadPermission(File file) {
+        if (!file.canRead()) {
+            throw new RuntimeException(format("No permission to read file by this path: %s", file.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * Deletes the file or the whole tree, throwing if any entry couldn't be deleted.
+     */
+    public static void deleteFiles(File file) {
+        deleteFiles(file, OperationListener.NONE);
+    }
+
+    /**
+     * Deletes like {@link #deleteFiles(File)}, reporting every deleted file to the listener as
+     * completed and every entry that couldn't be deleted as failed.
+     */
+    public static void deleteFiles(File file, OperationListener listener) {
+        validatePath(file);
+        OperationResult result = new ParallelDeleter(1, CancellationToken.NONE, listener).delete(file.toPath());
+        if (!result.isSuccessful()) {
+            Map.Entry<String, Exception> first = result.getFailures().entrySet().iterator().next();
+            throw new RuntimeException(format("Failed to delete %d entries, first: %s",
+                    result.getFailures().size(), first.getKey()), first.getValue());
+        }
+    }
+
+    /**
+     * Deletes the file or the whole tree bottom-up, removing files of independent subtrees
+     * concurrently. Returns the number of deleted entries and the ones that failed.
+     */
+    public static OperationResult delete(String path, int parallelism) {
+        return delete(path, parallelism, CancellationToken.NONE);
+    }
+
+    /**
+     * Deletes like {@link #delete(String, int)} but stops the walk and the queued deletions once
+     * the token is cancelled, leaving the rest of the tree in place.
+     */
+    public static OperationResult delete(String path, int parallelism, CancellationToken token) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism should be positive.");
+        }
+        File file = new File(path);
+        validatePath(file);
+        return new ParallelDeleter(parallelism, token, OperationListener.NONE).delete(file.toPath());
     }
 
 }
@@ -0,0 +1,154 @@
+package com.ukraine.dc.manager;
+
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.FileProgress;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32C;
+
+/**
+ * rsync-style file copy: unchanged files are skipped and large changed files only get
+ * the blocks that differ rewritten, unless the destination is hard-linked to other files,
+ * in which case it is replaced by a full copy. The destination takes over the source modification
+ * time, so the next run can skip it by metadata alone.
+ */
+final class IncrementalCopier {
+    static final long SKIPPED = -1;
+
+    private IncrementalCopier() {
+    }
+
+    /**
+     * Copies the file into the directory and returns the number of bytes written, or
+     * {@link #SKIPPED} when the destination is already identical. A non-null checksum is
+     * updated with the full resulting content.
+     */
+    static long copy(File source, File directory, CopyOptions options, CRC32C checksum, FileProgress progress) {
+        Path from = source.toPath();
+        Path to = directory.toPath().resolve(source.getName());
+        try {
+            BasicFileAttributes sourceAttributes = Files.readAttributes(from, BasicFileAttributes.class);
+            BasicFileAttributes targetAttributes = Files.exists(to, LinkOption.NOFOLLOW_LINKS)
+                    ? Files.readAttributes(to, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS) : null;
+            boolean sameSizeFile = targetAttributes != null && targetAttributes.isRegularFile()
+                    && targetAttributes.size() == sourceAttributes.size();
+            if (sameSizeFile && isUnchanged(from, to, sourceAttributes, targetAttributes, options)) {
+                if (checksum != null) {
+                    FileManager.updateChecksum(to, checksum);
+                }
+                return SKIPPED;
+            }
+
+            long written;
+            if (targetAttributes != null && targetAttributes.isRegularFile()
+                    && sourceAttributes.size() >= options.getDeltaThreshold() && !FileManager.isHardLinked(to)) {
+                to.toFile().setWritable(true);
+                written = copyChangedBlocks(from, to, options.getBlockSize(), checksum,
+                        options.getCancellationToken(), progress);
+            } else {
+                FileManager.handleFile(source, directory, checksum, options.getCancellationToken(), progress);
+                written = sourceAttributes.size();
+            }
+            Files.setLastModifiedTime(to, sourceAttributes.lastModifiedTime());
+            return written;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static boolean isUnchanged(Path from, Path to, BasicFileAttributes sourceAttributes,
+                                       BasicFileAttributes targetAttributes, CopyOptions options) throws IOException {
+        boolean sameTime = sourceAttributes.lastModifiedTime().toMillis() == targetAttributes.lastModifiedTime().toMillis();
+        if (!options.isCompareContent()) {
+            return sameTime;
+        }
+        if (!sameContent(from, to, options.getBlockSize(), options.getCancellationToken())) {
+            return false;
+        }
+        if (!sameTime) {
+            Files.setLastModifiedTime(to, sourceAttributes.lastModifiedTime());
+        }
+        return true;
+    }
+
+    private static boolean sameContent(Path from, Path to, int blockSize, CancellationToken token) throws IOException {
+        ByteBuffer sourceBlock = ByteBuffer.allocateDirect(blockSize);
+        ByteBuffer targetBlock = ByteBuffer.allocateDirect(blockSize);
+        try (FileChannel source = FileChannel.open(from, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(to, StandardOpenOption.READ)) {
+            long position = 0;
+            while (true) {
+                token.throwIfCancelled();
+                int read = readBlock(source, sourceBlock, position);
+                if (readBlock(target, targetBlock, position) != read || sourceBlock.mismatch(targetBlock) != -1) {
+                    return false;
+                }
+                if (read < blockSize) {
+                    return true;
+                }
+                position += read;
+            }
+        }
+    }
+
+    /**
+     * Compares the files block by block and rewrites only the blocks that differ, then
+     * trims or extends the destination to the source size. Both files are local, so the
+     * blocks are compared byte for byte rather than through rolling checksums. A cancelled
+     * copy stops between blocks and keeps the old modification time, so the next run redoes it.
+     */
+    private static long copyChangedBlocks(Path from, Path to, int blockSize, CRC32C checksum,
+                                          CancellationToken token, FileProgress progress) throws IOException {
+        ByteBuffer sourceBlock = ByteBuffer.allocateDirect(blockSize);
+        ByteBuffer targetBlock = ByteBuffer.allocateDirect(blockSize);
+        long written = 0;
+        try (FileChannel source = FileChannel.open(from, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(to, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = source.size();
+            for (long position = 0; position < size; position += blockSize) {
+                token.throwIfCancelled();
+                int read = readBlock(source, sourceBlock, position);
+                progress.read(read);
+                if (checksum != null) {
+                    checksum.update(sourceBlock);
+                    sourceBlock.rewind();
+                }
+                readBlock(target, targetBlock, position);
+                targetBlock.limit(Math.min(targetBlock.limit(), read));
+                if (sourceBlock.mismatch(targetBlock) != -1) {
+                    while (sourceBlock.hasRemaining()) {
+                        int count = target.write(sourceBlock, position + sourceBlock.position());
+                        written += count;
+                        progress.written(count);
+                    }
+                }
+                if (read < blockSize) {
+                    break;
+                }
+            }
+            target.truncate(size);
+        }
+        return written;
+    }
+
+    private static int readBlock(FileChannel channel, ByteBuffer block, long position) throws IOException {
+        block.clear();
+        while (block.hasRemaining()) {
+            int count = channel.read(block, position + block.position());
+            if (count == -1) {
+                break;
+            }
+        }
+        block.flip();
+        return block.remaining();
+    }
+
+}
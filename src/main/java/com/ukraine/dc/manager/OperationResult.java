@@ -0,0 +1,51 @@
+package com.ukraine.dc.manager;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Outcome of a bulk file operation: how much was processed and which paths failed.
+ */
+public class OperationResult {
+    private final long processedFiles;
+    private final long processedBytes;
+    private final long skippedFiles;
+    private final Map<String, Exception> failures;
+
+    public OperationResult(long processedFiles, long processedBytes, Map<String, Exception> failures) {
+        this(processedFiles, processedBytes, 0, failures);
+    }
+
+    public OperationResult(long processedFiles, long processedBytes, long skippedFiles, Map<String, Exception> failures) {
+        this.processedFiles = processedFiles;
+        this.processedBytes = processedBytes;
+        this.skippedFiles = skippedFiles;
+        this.failures = Collections.unmodifiableMap(failures);
+    }
+
+    public boolean isSuccessful() {
+        return failures.isEmpty();
+    }
+
+    public long getProcessedFiles() {
+        return processedFiles;
+    }
+
+    public long getProcessedBytes() {
+        return processedBytes;
+    }
+
+    /**
+     * Files left untouched because the destination was already up to date.
+     */
+    public long getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * Failed paths mapped to the cause, sorted by path.
+     */
+    public Map<String, Exception> getFailures() {
+        return failures;
+    }
+}
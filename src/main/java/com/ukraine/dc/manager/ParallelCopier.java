@@ -0,0 +1,376 @@
+package com.ukraine.dc.manager;
+
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.FileProgress;
+import com.ukraine.dc.operation.OperationListener;
+import com.ukraine.dc.operation.Phase;
+import com.ukraine.dc.operation.PhaseTimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+import static java.lang.String.format;
+
+/**
+ * Walks the source tree on the calling thread and copies the files on a bounded worker pool.
+ * The traversal blocks once the configured number of files is queued, and failures are
+ * collected per path instead of aborting the whole operation.
+ */
+final class ParallelCopier {
+    private final CopyOptions options;
+    private final OperationListener listener;
+    private final CancellationToken token;
+    private final boolean move;
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+    private final AtomicLong files = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final List<File> sourceDirectories = new ArrayList<>();
+    private final Map<String, Long> checksums = new ConcurrentHashMap<>();
+    private final Map<ByteBuffer, CompletableFuture<Path>> copies = new ConcurrentHashMap<>();
+    private final Map<Long, SizeGroup> sizes = new ConcurrentHashMap<>();
+    private Path base;
+
+    ParallelCopier(CopyOptions options, boolean move) {
+        this.options = options;
+        this.listener = options.getListener();
+        this.token = options.getCancellationToken();
+        this.move = move;
+        this.executor = Executors.newFixedThreadPool(options.getParallelism());
+        this.permits = new Semaphore(options.getParallelism() + options.getQueueCapacity());
+    }
+
+    /**
+     * Copies a file into the destination directory, or the content of a directory into it.
+     * Manifest entries are relative to {@code base}. A cancelled copy stops queueing files, lets
+     * the running ones stop at their next chunk and throws a CancellationException.
+     */
+    OperationResult copy(File source, File destination, File base) {
+        this.base = base.toPath().toAbsolutePath();
+        try {
+            if (source.isFile()) {
+                submit(source, destination);
+            } else {
+                walk(source, destination);
+            }
+        } finally {
+            executor.shutdown();
+            awaitTermination();
+        }
+        token.throwIfCancelled();
+        if (options.getChecksumManifest() != null) {
+            ChecksumManifest.write(Paths.get(options.getChecksumManifest()), checksums);
+        }
+        return new OperationResult(files.get(), bytes.get(), skipped.get(), failures);
+    }
+
+    /**
+     * Moves the entry to the target path. Entries are renamed where possible, like
+     * {@link FileManager#move(String, String)}; only files that can't be renamed are copied on
+     * the pool, verified against the source checksum and then deleted.
+     */
+    OperationResult move(File source, File target, File base) {
+        this.base = base.toPath().toAbsolutePath();
+        try {
+            moveEntry(source.toPath(), target.toPath());
+        } finally {
+            executor.shutdown();
+            awaitTermination();
+        }
+        token.throwIfCancelled();
+        deleteSourceDirectories();
+        if (options.getChecksumManifest() != null) {
+            ChecksumManifest.write(Paths.get(options.getChecksumManifest()), checksums);
+        }
+        return new OperationResult(files.get(), bytes.get(), skipped.get(), failures);
+    }
+
+    private void moveEntry(Path source, Path target) {
+        token.throwIfCancelled();
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
+        if ((!directory || Files.notExists(target, LinkOption.NOFOLLOW_LINKS)) && rename(source, target)) {
+            return;
+        }
+        if (!directory) {
+            submit(source.toFile(), target.getParent().toFile());
+            return;
+        }
+        if (!Files.isDirectory(target)) {
+            try {
+                Files.createDirectory(target);
+            } catch (IOException e) {
+                failures.put(source.toString(), new RuntimeException(
+                        format("Failed to create the directory: %s", target.toAbsolutePath()), e));
+                return;
+            }
+        }
+        sourceDirectories.add(source.toFile());
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(source)) {
+            for (Path entry : entries) {
+                moveEntry(entry, target.resolve(entry.getFileName().toString()));
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            failures.put(source.toString(), new RuntimeException(
+                    format("Failed to list the directory: %s", source.toAbsolutePath()), e));
+        }
+    }
+
+    /**
+     * Renames the entry and counts what it held as moved. A failed rename is left to the copy,
+     * which reports the failure if the entry can't be copied either.
+     */
+    private boolean rename(Path source, Path target) {
+        try {
+            if (!FileManager.tryRename(source, target)) {
+                return false;
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        DirectoryStats moved = DirectoryWalker.moved(source, target, listener);
+        if (options.getChecksumManifest() != null) {
+            DirectoryWalker.walkFiles(target, (file, attributes) -> recordChecksum(file));
+        }
+        files.addAndGet(moved.getFileCount());
+        bytes.addAndGet(moved.getTotalBytes());
+        return true;
+    }
+
+    private void walk(File source, File destination) {
+        Deque<File[]> pending = new ArrayDeque<>();
+        pending.push(new File[]{source, destination});
+        while (!pending.isEmpty()) {
+            File[] pair = pending.pop();
+            token.throwIfCancelled();
+            File directory = pair[0];
+            sourceDirectories.add(directory);
+            File[] nestedFiles = directory.listFiles();
+            if (nestedFiles == null) {
+                failures.put(directory.getPath(), new RuntimeException(
+                        format("Failed to list the directory: %s", directory.getAbsolutePath())));
+                continue;
+            }
+            for (File file : nestedFiles) {
+                if (file.isDirectory()) {
+                    File target = new File(pair[1], file.getName());
+                    if (!target.isDirectory() && !target.mkdir()) {
+                        failures.put(file.getPath(), new RuntimeException(
+                                format("Failed to create the directory: %s", target.getAbsolutePath())));
+                    } else {
+                        pending.push(new File[]{file, target});
+                    }
+                } else {
+                    submit(file, pair[1]);
+                }
+            }
+        }
+    }
+
+    private void submit(File file, File destination) {
+        permits.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                if (token.isCancelled()) {
+                    permits.release();
+                    return;
+                }
+                long size = listener == OperationListener.NONE ? 0 : file.length();
+                listener.fileStarted(file.toPath(), size);
+                try {
+                    PhaseTimer timer = new PhaseTimer(listener);
+                    FileProgress progress = new FileProgress(listener);
+                    CRC32C checksum = move || options.getChecksumManifest() != null ? new CRC32C() : null;
+                    long written = copyFile(file, destination, checksum, progress);
+                    if (move) {
+                        verify(file, destination, checksum);
+                        if (!file.delete()) {
+                            throw new RuntimeException(format("Failed to delete the moved file: %s", file.getAbsolutePath()));
+                        }
+                    }
+                    timer.complete(Phase.COPY);
+                    if (written == IncrementalCopier.SKIPPED) {
+                        skipped.incrementAndGet();
+                    } else {
+                        files.incrementAndGet();
+                        bytes.addAndGet(written);
+                    }
+                    progress.complete(size, written == IncrementalCopier.SKIPPED ? 0 : written);
+                    listener.fileCompleted(file.toPath(), size);
+                } catch (CancellationException e) {
+                    // the copy as a whole reports the cancellation
+                } catch (RuntimeException e) {
+                    failures.put(file.getPath(), e);
+                    listener.fileFailed(file.toPath(), e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            failures.put(file.getPath(), e);
+        }
+    }
+
+    private long copyFile(File file, File destination, CRC32C checksum, FileProgress progress) {
+        long written = options.isLinkDuplicates()
+                ? copyOrLink(file, destination, checksum, progress)
+                : copyContent(file, destination, checksum, progress);
+        if (options.getChecksumManifest() != null) {
+            putChecksum(destination.toPath().resolve(file.getName()), checksum.getValue());
+        }
+        return written;
+    }
+
+    private void recordChecksum(Path file) {
+        try {
+            putChecksum(file, FileManager.checksum(file));
+        } catch (IOException e) {
+            failures.put(file.toString(), new RuntimeException(format("Failed to checksum the moved file: %s", file), e));
+        }
+    }
+
+    private void putChecksum(Path file, long checksum) {
+        String relative = base.relativize(file.toAbsolutePath()).toString();
+        checksums.put(relative.replace(File.separatorChar, '/'), checksum);
+    }
+
+    /**
+     * Checks that the moved copy matches the source before the source is deleted. A plain copy
+     * checksums the source bytes while copying; skipped and linked files are read again.
+     */
+    private void verify(File file, File destination, CRC32C checksum) {
+        Path target = destination.toPath().resolve(file.getName());
+        try {
+            long expected = options.isIncremental() || options.isLinkDuplicates()
+                    ? FileManager.checksum(file.toPath()) : checksum.getValue();
+            if (Files.size(file.toPath()) != Files.size(target) || expected != FileManager.checksum(target)) {
+                throw new RuntimeException(format("The copy of '%s' doesn't match the source, the source is kept.", file));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private long copyContent(File file, File destination, CRC32C checksum, FileProgress progress) {
+        if (options.isIncremental()) {
+            return IncrementalCopier.copy(file, destination, options, checksum, progress);
+        }
+        FileManager.handleFile(file, destination, checksum, token, progress);
+        return file.length();
+    }
+
+    /**
+     * The first file with a given content is copied, every later one waits for that copy and
+     * becomes a hard link to it, writing no bytes. Files are grouped by size first, like
+     * {@link Deduplicator}, so only a file whose size was already seen is hashed, together with
+     * the first file of that size. If the first copy fails or the link can't be created, the
+     * file is copied on its own.
+     */
+    private long copyOrLink(File file, File destination, CRC32C checksum, FileProgress progress) {
+        Path target = destination.toPath().resolve(file.getName());
+        CompletableFuture<Path> copy = new CompletableFuture<>();
+        SizeGroup group = sizes.putIfAbsent(file.length(), new SizeGroup(file.toPath(), copy));
+        CompletableFuture<Path> original = null;
+        if (group != null) {
+            try {
+                group.register();
+                original = copies.putIfAbsent(ByteBuffer.wrap(FileManager.digest(file.toPath())), copy);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        if (original == null) {
+            try {
+                long written = copyContent(file, destination, checksum, progress);
+                copy.complete(target);
+                return written;
+            } catch (RuntimeException e) {
+                copy.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            Path originalCopy = original.join();
+            Files.deleteIfExists(target);
+            Files.createLink(target, originalCopy);
+            if (checksum != null) {
+                FileManager.updateChecksum(target, checksum);
+            }
+            return 0;
+        } catch (CompletionException | IOException | UnsupportedOperationException e) {
+            return copyContent(file, destination, checksum, progress);
+        }
+    }
+
+    private void awaitTermination() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deleteSourceDirectories() {
+        for (int i = sourceDirectories.size() - 1; i >= 0; i--) {
+            File directory = sourceDirectories.get(i);
+            String[] remaining = directory.list();
+            if (remaining != null && remaining.length == 0 && !directory.delete()) {
+                failures.put(directory.getPath(), new RuntimeException(
+                        format("Failed to delete the moved directory: %s", directory.getAbsolutePath())));
+            }
+        }
+    }
+
+    /**
+     * The first file of one size, copied without hashing. It is hashed and offered for linking
+     * once another file of the same size shows up; if it can't be read, it is not offered.
+     */
+    private final class SizeGroup {
+        private final Path first;
+        private final CompletableFuture<Path> copy;
+        private boolean registered;
+
+        SizeGroup(Path first, CompletableFuture<Path> copy) {
+            this.first = first;
+            this.copy = copy;
+        }
+
+        synchronized void register() {
+            if (registered) {
+                return;
+            }
+            registered = true;
+            try {
+                copies.putIfAbsent(ByteBuffer.wrap(FileManager.digest(first)), copy);
+            } catch (IOException e) {
+                // the later files are compared among themselves
+            }
+        }
+    }
+
+}
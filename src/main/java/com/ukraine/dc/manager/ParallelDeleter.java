@@ -0,0 +1,204 @@
+package com.ukraine.dc.manager;
+
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.OperationListener;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes a tree bottom-up. Files.walkFileTree drives the traversal without recursion, files are
+ * deleted on a worker pool and every directory is removed by whichever thread finishes its last
+ * child, so independent subtrees are emptied concurrently.
+ */
+final class ParallelDeleter {
+    private static final int QUEUED_FILES_PER_THREAD = 256;
+
+    private final ExecutorService pool;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final CancellationToken token;
+    private final OperationListener listener;
+    private final Map<String, Exception> failures = new ConcurrentSkipListMap<>();
+    private final AtomicLong deleted = new AtomicLong();
+
+    ParallelDeleter(int parallelism, CancellationToken token, OperationListener listener) {
+        this.token = token;
+        this.listener = listener;
+        this.pool = parallelism > 1 ? Executors.newFixedThreadPool(parallelism) : null;
+        this.executor = pool != null ? pool : Runnable::run;
+        this.permits = new Semaphore(parallelism * QUEUED_FILES_PER_THREAD);
+    }
+
+    OperationResult delete(Path root) {
+        try {
+            Files.walkFileTree(root, new Visitor());
+        } catch (IOException e) {
+            failures.put(root.toString(), e);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                awaitTermination();
+            }
+        }
+        token.throwIfCancelled();
+        return new OperationResult(deleted.get(), 0, failures);
+    }
+
+    private void deleteFile(Path file, long size, Directory parent) {
+        permits.acquireUninterruptibly();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (token.isCancelled()) {
+                        parent.childFailed = true;
+                        return;
+                    }
+                    listener.fileStarted(file, size);
+                    Files.delete(file);
+                    deleted.incrementAndGet();
+                    listener.fileCompleted(file, size);
+                } catch (IOException | RuntimeException e) {
+                    failures.put(file.toString(), e);
+                    listener.fileFailed(file, e);
+                    parent.childFailed = true;
+                } finally {
+                    permits.release();
+                    complete(parent);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            failures.put(file.toString(), e);
+            parent.childFailed = true;
+            complete(parent);
+        }
+    }
+
+    /**
+     * Releases one pending child of the directory and deletes every directory on the way up
+     * whose last child is gone. Iterative, so deep trees don't grow the stack.
+     */
+    private void complete(Directory directory) {
+        while (directory != null && directory.pending.decrementAndGet() == 0) {
+            Directory parent = directory.parent;
+            if (directory.childFailed) {
+                if (parent != null) {
+                    parent.childFailed = true;
+                }
+            } else {
+                try {
+                    Files.delete(directory.path);
+                    deleted.incrementAndGet();
+                } catch (IOException e) {
+                    failures.put(directory.path.toString(), e);
+                    if (parent != null) {
+                        parent.childFailed = true;
+                    }
+                }
+            }
+            directory = parent;
+        }
+    }
+
+    private void awaitTermination() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class Directory {
+        private final Path path;
+        private final Directory parent;
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private volatile boolean childFailed;
+
+        Directory(Path path, Directory parent) {
+            this.path = path;
+            this.parent = parent;
+        }
+    }
+
+    private class Visitor extends SimpleFileVisitor<Path> {
+        private final Deque<Directory> directories = new ArrayDeque<>();
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (token.isCancelled()) {
+                return FileVisitResult.TERMINATE;
+            }
+            Directory parent = directories.peek();
+            if (parent != null) {
+                parent.pending.incrementAndGet();
+            }
+            directories.push(new Directory(dir, parent));
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (token.isCancelled()) {
+                return FileVisitResult.TERMINATE;
+            }
+            Directory parent = directories.peek();
+            if (parent == null) {
+                deleteRoot(file, attrs.size());
+            } else {
+                parent.pending.incrementAndGet();
+                deleteFile(file, attrs.size(), parent);
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            failures.put(file.toString(), exc);
+            Directory parent = directories.peek();
+            if (parent != null) {
+                parent.childFailed = true;
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+            Directory directory = directories.pop();
+            if (exc != null) {
+                failures.put(dir.toString(), exc);
+                directory.childFailed = true;
+            }
+            complete(directory);
+            return FileVisitResult.CONTINUE;
+        }
+
+        private void deleteRoot(Path file, long size) {
+            listener.fileStarted(file, size);
+            try {
+                Files.delete(file);
+                deleted.incrementAndGet();
+                listener.fileCompleted(file, size);
+            } catch (IOException e) {
+                failures.put(file.toString(), e);
+                listener.fileFailed(file, e);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.ukraine.dc.operation;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Cooperative cancellation flag with an optional deadline. Operations poll it between files
+ * and between chunks of a file and stop with a {@link CancellationException}; work already
+ * written is left in place.
+ */
+public final class CancellationToken {
+    /**
+     * A token that is never cancelled.
+     */
+    public static final CancellationToken NONE = new CancellationToken(false, 0, null);
+
+    private final boolean cancellable;
+    private final long deadlineNanos;
+    private final CancellationToken parent;
+    private volatile boolean cancelled;
+
+    public CancellationToken() {
+        this(true, 0, null);
+    }
+
+    private CancellationToken(boolean cancellable, long deadlineNanos, CancellationToken parent) {
+        this.cancellable = cancellable;
+        this.deadlineNanos = deadlineNanos;
+        this.parent = parent;
+    }
+
+    /**
+     * Creates a token that cancels itself once the timeout has passed.
+     */
+    public static CancellationToken withTimeout(Duration timeout) {
+        if (timeout == null || timeout.isNegative()) {
+            throw new IllegalArgumentException("The timeout shouldn't be negative or null.");
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        return new CancellationToken(true, deadline == 0 ? 1 : deadline, null);
+    }
+
+    /**
+     * Creates a token that is also cancelled when the parent is, by its owner or its deadline.
+     * Cancelling the new token leaves the parent alone.
+     */
+    public static CancellationToken linkedTo(CancellationToken parent) {
+        if (parent == null) {
+            throw new IllegalArgumentException("The parent token shouldn't be null.");
+        }
+        return new CancellationToken(true, 0, parent == NONE ? null : parent);
+    }
+
+    public void cancel() {
+        if (!cancellable) {
+            throw new UnsupportedOperationException("The NONE token can't be cancelled.");
+        }
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        if (cancelled) {
+            return true;
+        }
+        if ((deadlineNanos != 0 && System.nanoTime() - deadlineNanos >= 0) || (parent != null && parent.isCancelled())) {
+            cancelled = true;
+        }
+        return cancelled;
+    }
+
+    public void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("The operation was cancelled.");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.ukraine.dc.operation;
+
+/**
+ * Reports the bytes of one file to the listener chunk by chunk while it is processed. Whatever
+ * the chunks didn't cover, such as skipped or cached content, is reported on completion, so
+ * the listener sees every byte of the file exactly once. Used by one thread at a time.
+ */
+public final class FileProgress {
+    public static final FileProgress NONE = new FileProgress(OperationListener.NONE);
+
+    private final OperationListener listener;
+    private final boolean enabled;
+    private long read;
+    private long written;
+
+    public FileProgress(OperationListener listener) {
+        this.listener = listener;
+        this.enabled = listener != OperationListener.NONE;
+    }
+
+    public void read(long bytes) {
+        if (enabled && bytes > 0) {
+            read += bytes;
+            listener.bytesRead(bytes);
+        }
+    }
+
+    public void written(long bytes) {
+        if (enabled && bytes > 0) {
+            written += bytes;
+            listener.bytesWritten(bytes);
+        }
+    }
+
+    /**
+     * Reports the bytes of the file that no chunk has reported yet.
+     */
+    public void complete(long totalRead, long totalWritten) {
+        read(totalRead - read);
+        written(totalWritten - written);
+    }
+}
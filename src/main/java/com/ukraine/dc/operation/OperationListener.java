@@ -0,0 +1,41 @@
+package com.ukraine.dc.operation;
+
+import java.nio.file.Path;
+
+/**
+ * Receives the progress of a file operation. Callbacks may come from several worker threads
+ * at once, so implementations should be thread-safe and cheap. Every method does nothing by
+ * default, and {@link #NONE} switches the instrumentation off including the timing.
+ * <p>
+ * Every file that is completed or failed has been started first, so once an operation returns
+ * the started files are the completed plus the failed ones.
+ */
+public interface OperationListener {
+    OperationListener NONE = new OperationListener() {
+    };
+
+    /**
+     * Called before a file is processed; the size is 0 when it is unknown.
+     */
+    default void fileStarted(Path file, long size) {
+    }
+
+    default void fileCompleted(Path file, long bytes) {
+    }
+
+    default void fileFailed(Path file, Exception exception) {
+    }
+
+    /**
+     * Reports source bytes that were processed, chunk by chunk while a file is read, including
+     * the ones of files a copy skipped as unchanged.
+     */
+    default void bytesRead(long bytes) {
+    }
+
+    default void bytesWritten(long bytes) {
+    }
+
+    default void phaseCompleted(Phase phase, long nanos) {
+    }
+}
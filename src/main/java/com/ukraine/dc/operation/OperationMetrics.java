@@ -0,0 +1,104 @@
+package com.ukraine.dc.operation;
+
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Listener that aggregates counters and per-phase latency histograms, ready to be exported
+ * to a metrics system. One instance can be shared by concurrent operations.
+ */
+public class OperationMetrics implements OperationListener {
+    private final long startNanos = System.nanoTime();
+    private final LongAdder filesStarted = new LongAdder();
+    private final LongAdder filesCompleted = new LongAdder();
+    private final LongAdder filesFailed = new LongAdder();
+    private final LongAdder expectedBytes = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final Map<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+
+    public OperationMetrics() {
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void fileStarted(Path file, long size) {
+        filesStarted.increment();
+        expectedBytes.add(size);
+    }
+
+    @Override
+    public void fileCompleted(Path file, long bytes) {
+        filesCompleted.increment();
+    }
+
+    @Override
+    public void fileFailed(Path file, Exception exception) {
+        filesFailed.increment();
+    }
+
+    @Override
+    public void bytesRead(long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    @Override
+    public void bytesWritten(long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    @Override
+    public void phaseCompleted(Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    public long getFilesStarted() {
+        return filesStarted.sum();
+    }
+
+    public long getFilesCompleted() {
+        return filesCompleted.sum();
+    }
+
+    public long getFilesFailed() {
+        return filesFailed.sum();
+    }
+
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    public LatencyHistogram getLatency(Phase phase) {
+        return phases.get(phase);
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public double getBytesReadPerSecond() {
+        return getBytesRead() * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(getElapsedNanos(), 1);
+    }
+
+    /**
+     * Estimates the time left for the files started so far at the read rate seen so far,
+     * or returns -1 while nothing has been read yet.
+     */
+    public long estimateRemainingNanos() {
+        long read = getBytesRead();
+        if (read == 0) {
+            return -1;
+        }
+        long remaining = Math.max(expectedBytes.sum() - read, 0);
+        return (long) (remaining * (double) getElapsedNanos() / read);
+    }
+}
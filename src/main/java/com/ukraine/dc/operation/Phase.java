@@ -0,0 +1,9 @@
+package com.ukraine.dc.operation;
+
+/**
+ * Timed steps of an operation. Single-pass analysis reads, splits and counts at once and
+ * reports the whole pass as {@link #COUNT}.
+ */
+public enum Phase {
+    READ, TOKENIZE, COUNT, COPY
+}
@@ -0,0 +1,28 @@
+package com.ukraine.dc.operation;
+
+/**
+ * Measures consecutive phases of one operation and reports them to the listener.
+ * Does not read the clock when the listener is {@link OperationListener#NONE}.
+ */
+public final class PhaseTimer {
+    private final OperationListener listener;
+    private final boolean enabled;
+    private long mark;
+
+    public PhaseTimer(OperationListener listener) {
+        this.listener = listener;
+        this.enabled = listener != OperationListener.NONE;
+        this.mark = enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Reports the time since the previous phase, or since the timer was created, as the given phase.
+     */
+    public void complete(Phase phase) {
+        if (enabled) {
+            long now = System.nanoTime();
+            listener.phaseCompleted(phase, now - mark);
+            mark = now;
+        }
+    }
+}
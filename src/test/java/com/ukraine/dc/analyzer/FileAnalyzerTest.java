@@ -1,11 +1,34 @@
 package com.ukraine.dc.analyzer;
 
+import com.ukraine.dc.operation.OperationListener;
+import com.ukraine.dc.operation.OperationMetrics;
+import com.ukraine.dc.operation.Phase;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.function.Executable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.*;
 
 class FileAnalyzerTest {
@@ -126,6 +149,14 @@ class FileAnalyzerTest {
         assertEquals(12, counter);
     }
 
+    @Test
+    @DisplayName("Test countWord() counts non-overlapping occurrences on CRLF and LF separated content.")
+    void testCountWordWithLineSeparators() {
+        assertEquals(3, analyzer.countWord("Hello\r\nhello\nHELLO", searchWord));
+        assertEquals(0, analyzer.countWord("hel\r\nlo", searchWord));
+        assertEquals(2, analyzer.countWord("aaaaa", "aa"));
+    }
+
     @Test
     @DisplayName("Test analyze() method")
     void testMethodAnalyze() {
@@ -139,6 +170,494 @@ class FileAnalyzerTest {
         }
     }
 
+    @Test
+    @DisplayName("Test analyzeStreaming() returns the same result as analyze().")
+    void testAnalyzeStreamingMatchesAnalyze() {
+        FileInformation expected = analyzer.analyze(file.getAbsolutePath(), searchWord);
+        FileInformation actual = analyzer.analyzeStreaming(file.getAbsolutePath(), searchWord);
+        assertEquals(expected.getWordCount(), actual.getWordCount());
+        assertEquals(expected.getSentences(), actual.getSentences());
+    }
+
+    @Test
+    @DisplayName("Test analyze(Reader) when sentences and words cross chunk boundaries.")
+    void testAnalyzeReaderWithTinyChunks() {
+        String content = testContent.replace("\n", "\r\n");
+        FileInformation expected = new FileInformation(analyzer.countWord(content, searchWord),
+                analyzer.getSentencesWithWord(content, searchWord));
+        FileInformation actual = analyzer.analyze(new ChunkedReader(content, 3), searchWord);
+        assertEquals(expected.getWordCount(), actual.getWordCount());
+        assertEquals(expected.getSentences(), actual.getSentences());
+    }
+
+    @Test
+    @DisplayName("Test analyze(Reader) when content is empty, should throw an exception with a correspondent message.")
+    void testAnalyzeReaderWhenContentIsEmpty() {
+        Exception exception = Assertions.assertThrows(RuntimeException.class,
+                () -> analyzer.analyze(new StringReader(""), searchWord));
+        assertEquals("The file content is empty.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test readFileContent() keeps multi-byte characters that straddle a decoded chunk.")
+    void testReadFileContentWithCyrillicText() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            builder.append("\u041f\u0440\u0438\u0432\u0456\u0442 hello, \u0441\u0432\u0456\u0442!\n");
+        }
+        String content = builder.toString();
+        File cyrillicFile = File.createTempFile("cyrillic", ".txt");
+        try {
+            Files.write(cyrillicFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            assertEquals(content, analyzer.readFileContent(cyrillicFile.getAbsolutePath()));
+            FileInformation streamed = analyzer.analyzeStreaming(cyrillicFile.getAbsolutePath(), searchWord);
+            assertEquals(5000, streamed.getWordCount());
+            assertEquals(analyzer.getSentencesWithWord(content, searchWord), streamed.getSentences());
+        } finally {
+            cyrillicFile.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyzeLazily() returns the same result as analyze() and reads sentences by offsets.")
+    void testAnalyzeLazilyMatchesAnalyze() {
+        FileInformation expected = analyzer.analyze(file.getAbsolutePath(), searchWord);
+        FileInformation actual = analyzer.analyzeLazily(file.getAbsolutePath(), searchWord);
+        assertTrue(actual.isLazy());
+        assertEquals(expected.getWordCount(), actual.getWordCount());
+        assertEquals(expected.getSentenceCount(), actual.getSentenceCount());
+        assertEquals(expected.getSentences(), actual.getSentences());
+        assertEquals(expected.printMessages(), actual.printMessages());
+    }
+
+    @Test
+    @DisplayName("Test lazy sentences refuse to read a file that changed after the analysis.")
+    void testAnalyzeLazilyWhenFileChanged() throws IOException {
+        FileInformation information = analyzer.analyzeLazily(file.getAbsolutePath(), searchWord);
+        long modified = file.lastModified();
+        Files.write(file.toPath(), testContent.substring(0, testContent.length() / 2).getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(modified));
+
+        Exception exception = assertThrows(IllegalStateException.class, information::getSentences);
+        assertEquals(format("The file '%s' changed after its sentences were found.", file.getAbsolutePath()),
+                exception.getMessage());
+
+        Files.write(file.toPath(), testContent.toUpperCase().getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(modified + 2000));
+        assertThrows(IllegalStateException.class, () -> information.getSentences(0, 1));
+    }
+
+    @Test
+    @DisplayName("Test lazy sentences with multi-byte text are paged and iterated in order.")
+    void testAnalyzeLazilyPagesWithCyrillicText() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            builder.append("\u041f\u0440\u0438\u0432\u0435\u0442 hello ").append(i).append(", \u043c\u0438\u0440!\n");
+        }
+        String content = builder.toString();
+        File cyrillicFile = File.createTempFile("cyrillic", ".txt");
+        try {
+            Files.write(cyrillicFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+            List<String> expected = analyzer.getSentencesWithWord(content, searchWord);
+            FileInformation information = analyzer.analyzeLazily(cyrillicFile.getAbsolutePath(), searchWord);
+
+            assertEquals(1000, information.getSentenceCount());
+            assertEquals(expected.subList(300, 400), information.getSentences(3, 100));
+            assertEquals(expected.subList(900, 1000), information.getSentences(6, 150));
+            assertTrue(information.getSentences(10, 100).isEmpty());
+            assertEquals(expected, information.sentences().collect(Collectors.toList()));
+
+            StringWriter writer = new StringWriter();
+            information.printMessages(writer);
+            assertEquals(new FileInformation(1000, expected).printMessages(), writer.toString());
+        } finally {
+            cyrillicFile.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyze() reports the file and the time of its phases to the listener.")
+    void testAnalyzeReportsMetrics() {
+        OperationMetrics metrics = new OperationMetrics();
+        FileAnalyzer instrumented = new FileAnalyzer(StandardCharsets.UTF_8, new SentenceCache(1024 * 1024), metrics);
+
+        instrumented.analyze(file.getAbsolutePath(), searchWord);
+        instrumented.analyze(file.getAbsolutePath(), "world");
+        Assertions.assertThrows(RuntimeException.class, () -> instrumented.analyze("missing.txt", searchWord));
+
+        assertEquals(3, metrics.getFilesStarted());
+        assertEquals(2, metrics.getFilesCompleted());
+        assertEquals(1, metrics.getFilesFailed());
+        assertEquals(2 * file.length(), metrics.getBytesRead());
+        assertEquals(1, metrics.getLatency(Phase.READ).getCount());
+        assertEquals(1, metrics.getLatency(Phase.TOKENIZE).getCount());
+        assertEquals(2, metrics.getLatency(Phase.COUNT).getCount());
+    }
+
+    @Test
+    @DisplayName("Test a streaming analysis reports the bytes it reads chunk by chunk.")
+    void testAnalyzeStreamingReportsProgressPerChunk() throws IOException {
+        File large = File.createTempFile("large", ".txt");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(large), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 200; i++) {
+                writer.write(testContent);
+            }
+        }
+        try {
+            List<Long> chunks = new ArrayList<>();
+            OperationListener listener = new OperationListener() {
+                @Override
+                public void bytesRead(long bytes) {
+                    chunks.add(bytes);
+                }
+            };
+
+            new FileAnalyzer(StandardCharsets.UTF_8, null, listener).analyzeStreaming(large.getAbsolutePath(), searchWord);
+
+            assertTrue(chunks.size() > 1);
+            assertEquals(large.length(), chunks.stream().mapToLong(Long::longValue).sum());
+        } finally {
+            large.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyze() streams a gzip file with several members like the plain file.")
+    void testAnalyzeGzipFile() throws IOException {
+        File gzipFile = File.createTempFile("test", ".txt.gz");
+        try {
+            byte[] content = testContent.getBytes(StandardCharsets.UTF_8);
+            try (OutputStream out = new FileOutputStream(gzipFile)) {
+                for (int offset = 0; offset < content.length; offset += 100) {
+                    GZIPOutputStream member = new GZIPOutputStream(out);
+                    member.write(content, offset, Math.min(100, content.length - offset));
+                    member.finish();
+                }
+            }
+            FileInformation expected = analyzer.analyze(file.getAbsolutePath(), searchWord);
+            FileInformation actual = analyzer.analyze(gzipFile.getAbsolutePath(), searchWord);
+
+            assertEquals(expected.getWordCount(), actual.getWordCount());
+            assertEquals(expected.getSentences(), actual.getSentences());
+            assertEquals(expected.getSentences(), analyzer.analyzeLazily(gzipFile.getAbsolutePath(), searchWord).getSentences());
+            assertEquals(expected.getWordCount(),
+                    analyzer.analyze(gzipFile.getAbsolutePath(), List.of(searchWord, "world")).get(searchWord).getWordCount());
+        } finally {
+            gzipFile.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyzeEntries() keeps zip entries apart and analyze() merges them.")
+    void testAnalyzeZipEntries() throws IOException {
+        File zipFile = File.createTempFile("test", ".zip");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+                out.putNextEntry(new ZipEntry("logs/"));
+                out.putNextEntry(new ZipEntry("logs/first.log"));
+                out.write("Hello there. Say hello".getBytes(StandardCharsets.UTF_8));
+                out.putNextEntry(new ZipEntry("logs/second.log"));
+                out.write(" world. Bye hello!".getBytes(StandardCharsets.UTF_8));
+            }
+            Map<String, FileInformation> entries = analyzer.analyzeEntries(zipFile.getAbsolutePath(), searchWord);
+            FileInformation merged = analyzer.analyze(zipFile.getAbsolutePath(), searchWord);
+
+            assertEquals(List.of("logs/first.log", "logs/second.log"), List.copyOf(entries.keySet()));
+            assertEquals(2, entries.get("logs/first.log").getWordCount());
+            assertEquals(List.of("Hello there."), entries.get("logs/first.log").getSentences());
+            assertEquals(List.of(" Bye hello!"), entries.get("logs/second.log").getSentences());
+            assertEquals(3, merged.getWordCount());
+            assertEquals(List.of("Hello there.", " Bye hello!"), merged.getSentences());
+        } finally {
+            zipFile.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test empty zip entries are kept by analyzeEntries() and by the multi-word analyze().")
+    void testAnalyzeZipWithEmptyEntries() throws IOException {
+        File zipFile = File.createTempFile("test", ".zip");
+        File emptyZipFile = File.createTempFile("empty", ".zip");
+        try {
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zipFile))) {
+                out.putNextEntry(new ZipEntry("empty.log"));
+                out.putNextEntry(new ZipEntry("first.log"));
+                out.write("Hello there. Bye, world.".getBytes(StandardCharsets.UTF_8));
+                out.putNextEntry(new ZipEntry("blank.log"));
+            }
+            try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(emptyZipFile))) {
+                out.putNextEntry(new ZipEntry("empty.log"));
+                out.putNextEntry(new ZipEntry("blank.log"));
+            }
+            Map<String, FileInformation> entries = analyzer.analyzeEntries(zipFile.getAbsolutePath(), searchWord);
+            Map<String, FileInformation> words = analyzer.analyze(zipFile.getAbsolutePath(), List.of(searchWord, "world"));
+
+            assertEquals(List.of("empty.log", "first.log", "blank.log"), List.copyOf(entries.keySet()));
+            assertEquals(0, entries.get("empty.log").getWordCount());
+            assertEquals(0, entries.get("blank.log").getWordCount());
+            assertEquals(1, words.get(searchWord).getWordCount());
+            assertEquals(List.of("Hello there."), words.get(searchWord).getSentences());
+            assertEquals(List.of(" Bye, world."), words.get("world").getSentences());
+            for (Executable analysis : List.<Executable>of(
+                    () -> analyzer.analyzeEntries(emptyZipFile.getAbsolutePath(), searchWord),
+                    () -> analyzer.analyze(emptyZipFile.getAbsolutePath(), List.of(searchWord, "world")))) {
+                Exception exception = assertThrows(RuntimeException.class, analysis);
+                assertEquals("The file content is empty.", exception.getMessage());
+            }
+        } finally {
+            zipFile.delete();
+            emptyZipFile.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test termFrequencies() counts every lowercased term exactly and orders the top terms.")
+    void testTermFrequencies() {
+        TermFrequencies frequencies = analyzer.termFrequencies(file.getAbsolutePath());
+
+        Map<String, Long> expected = new TreeMap<>();
+        for (String term : testContent.toLowerCase().split("[^a-z0-9]+")) {
+            if (!term.isEmpty()) {
+                expected.merge(term, 1L, Long::sum);
+            }
+        }
+        assertEquals(expected.size(), frequencies.size());
+        assertEquals(expected.values().stream().mapToLong(Long::longValue).sum(), frequencies.getTotalCount());
+        expected.forEach((term, count) -> assertEquals(count, frequencies.getCount(term), term));
+        assertEquals(7, frequencies.getCount("HELLO"));
+        assertEquals(List.of(new TermHistogram.TermCount("hello", 7), new TermHistogram.TermCount("fine", 2),
+                new TermHistogram.TermCount("world", 2)), frequencies.top(3));
+    }
+
+    @Test
+    @DisplayName("Test merged term counts above the int range don't wrap around.")
+    void testTermFrequenciesMergeBeyondIntRange() {
+        char[] hello = "hello".toCharArray();
+        TermFrequencies large = new TermFrequencies();
+        large.put(hello, 0, hello.length, TermHistogram.hash(hello, 0, hello.length), Integer.MAX_VALUE);
+        TermFrequencies total = new TermFrequencies().merge(large).merge(large)
+                .merge(analyzer.termFrequencies(file.getAbsolutePath()));
+        long fileCount = analyzer.termFrequencies(file.getAbsolutePath()).getCount("hello");
+
+        assertEquals(2L * Integer.MAX_VALUE + fileCount, total.getCount("hello"));
+        assertEquals(2L * Integer.MAX_VALUE + fileCount, total.top(1).get(0).getCount());
+    }
+
+    @Test
+    @DisplayName("Test merged term tables and a count-min sketch agree with one exact table.")
+    void testTermFrequenciesMergeAndSketch() throws IOException {
+        StringBuilder first = new StringBuilder();
+        StringBuilder second = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            first.append("term").append(i % 3000).append(' ');
+            second.append("word").append(i % 10).append(i % 7 == 0 ? " common " : " ");
+        }
+        File other = File.createTempFile("terms", ".txt");
+        try {
+            Files.write(file.toPath(), first.toString().getBytes(StandardCharsets.UTF_8));
+            Files.write(other.toPath(), second.toString().getBytes(StandardCharsets.UTF_8));
+
+            TermFrequencies merged = analyzer.termFrequencies(file.getAbsolutePath())
+                    .merge(analyzer.termFrequencies(other.getAbsolutePath()));
+            TermFrequencies exact = analyzer.countTerms(other.getAbsolutePath(),
+                    analyzer.countTerms(file.getAbsolutePath(), new TermFrequencies()));
+            TermSketch sketch = analyzer.countTerms(file.getAbsolutePath(), new TermSketch(4096, 4, 20))
+                    .merge(analyzer.countTerms(other.getAbsolutePath(), new TermSketch(4096, 4, 20)));
+
+            assertEquals(exact.top(20), merged.top(20));
+            assertEquals(3011, merged.size());
+            assertEquals(exact.getTotalCount(), sketch.getTotalCount());
+            for (int i = 0; i < 11; i++) {
+                TermHistogram.TermCount estimated = sketch.top(11).get(i);
+                assertEquals(exact.top(11).get(i).getTerm(), estimated.getTerm());
+                assertTrue(estimated.getCount() >= exact.getCount(estimated.getTerm()));
+            }
+            assertTrue(sketch.getCount("term7") >= exact.getCount("term7"));
+        } finally {
+            other.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test getSentences(page, size) when page is negative, should throw an exception.")
+    void testGetSentencesPageWhenPageIsNegative() {
+        FileInformation information = analyzer.analyze(file.getAbsolutePath(), searchWord);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> information.getSentences(-1, 10));
+        assertEquals(information.getSentences().subList(2, 4), information.getSentences(1, 2));
+    }
+
+    @Test
+    @DisplayName("Test ParallelFileAnalyzer returns the same result as the sequential analyze().")
+    void testParallelAnalyzeMatchesSequential() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            builder.append(testContent).append(i % 2 == 0 ? "\r\n" : " \u0421\u043b\u043e\u0432\u043e hello. ");
+        }
+        File largeFile = File.createTempFile("parallel", ".txt");
+        try (ParallelFileAnalyzer parallelAnalyzer = new ParallelFileAnalyzer(
+                new ForkJoinPool(4), true, StandardCharsets.UTF_8, 64)) {
+            Files.write(largeFile.toPath(), builder.toString().getBytes(StandardCharsets.UTF_8));
+            FileInformation expected = analyzer.analyze(largeFile.getAbsolutePath(), searchWord);
+            FileInformation actual = parallelAnalyzer.analyze(largeFile.getAbsolutePath(), searchWord);
+            assertEquals(expected.getWordCount(), actual.getWordCount());
+            assertEquals(expected.getSentences(), actual.getSentences());
+            assertEquals(4, parallelAnalyzer.getParallelism());
+        } finally {
+            largeFile.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyze() with several words returns the same result as analyzing each word separately.")
+    void testAnalyzeSeveralWordsInOnePass() {
+        List<String> words = List.of("hello", "World", "l", "fine.", "ll", "o, w");
+        Map<String, FileInformation> result = analyzer.analyze(file.getAbsolutePath(), words);
+        assertEquals(words, List.copyOf(result.keySet()));
+        for (String word : words) {
+            FileInformation expected = analyzer.analyze(file.getAbsolutePath(), word);
+            assertEquals(expected.getWordCount(), result.get(word).getWordCount(), word);
+            assertEquals(expected.getSentences(), result.get(word).getSentences(), word);
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyze() with several words when one of them is empty, should throw an exception.")
+    void testAnalyzeSeveralWordsWhenWordIsEmpty() {
+        Exception exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> analyzer.analyze(file.getAbsolutePath(), List.of("hello", " ")));
+        assertEquals("The 'word' parameter shouldn't be empty or null.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test analyze() with a cache reuses the segmentation until the file changes.")
+    void testAnalyzeWithSentenceCache() {
+        SentenceCache cache = new SentenceCache(1024 * 1024);
+        FileAnalyzer cachingAnalyzer = new FileAnalyzer(cache);
+        FileInformation expected = analyzer.analyze(file.getAbsolutePath(), searchWord);
+
+        FileInformation first = cachingAnalyzer.analyze(file.getAbsolutePath(), searchWord);
+        FileInformation second = cachingAnalyzer.analyze(file.getAbsolutePath(), "world");
+        assertEquals(expected.getWordCount(), first.getWordCount());
+        assertEquals(expected.getSentences(), first.getSentences());
+        assertEquals(analyzer.analyze(file.getAbsolutePath(), "world").getSentences(), second.getSentences());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+
+        assertTrue(file.setLastModified(file.lastModified() + 5000));
+        cachingAnalyzer.analyze(file.getAbsolutePath(), searchWord);
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    @DisplayName("Test a cached ISO-8859-1 file keeps its content when the file is rewritten in place.")
+    void testSentenceCacheCopiesMappedContent() throws IOException {
+        SentenceCache cache = new SentenceCache(1024 * 1024);
+        FileAnalyzer cachingAnalyzer = new FileAnalyzer(StandardCharsets.ISO_8859_1, cache);
+        FileInformation first = cachingAnalyzer.analyze(file.getAbsolutePath(), searchWord);
+        long modified = file.lastModified();
+
+        try (RandomAccessFile rewritten = new RandomAccessFile(file, "rw")) {
+            rewritten.write(testContent.replace('h', 'j').replace('H', 'J').getBytes(StandardCharsets.ISO_8859_1));
+        }
+        assertTrue(file.setLastModified(modified));
+        FileInformation second = cachingAnalyzer.analyze(file.getAbsolutePath(), searchWord);
+
+        assertEquals(1, cache.getHitCount());
+        assertEquals(first.getWordCount(), second.getWordCount());
+        assertEquals(first.getSentences(), second.getSentences());
+    }
+
+    @Test
+    @DisplayName("Test the cache evicts the least recently used entries when it exceeds its size.")
+    void testSentenceCacheEviction() throws IOException {
+        File other = File.createTempFile("other", ".txt");
+        try {
+            fillFileWithContent(other);
+            SentenceCache cache = new SentenceCache(testContent.length() * 5L);
+            FileAnalyzer cachingAnalyzer = new FileAnalyzer(cache);
+            cachingAnalyzer.analyze(file.getAbsolutePath(), searchWord);
+            cachingAnalyzer.analyze(other.getAbsolutePath(), searchWord);
+            assertEquals(1, cache.size());
+            assertEquals(1, cache.getEvictionCount());
+            assertTrue(cache.getSizeInBytes() <= testContent.length() * 5L);
+        } finally {
+            other.delete();
+        }
+    }
+
+    @Test
+    @DisplayName("Test SentenceTokenizer produces the same sentences as the former sentence regex.")
+    void testSentenceTokenizerMatchesRegex() {
+        Pattern regex = Pattern.compile(
+                "(?:([A-Za-z\\u0401\\u0451\\u0410-\\u044f0-9\\s\\\\,]|))+(?:(\\.|\\?|!))");
+        String cyrillic = "\u041f\u0440\u0438\u0432\u0456\u0442, \u0441\u0432\u0456\u0442! \u0401\u0436 \\ \u0442\u0443\u0442?";
+        for (String content : List.of(testContent, cyrillic, "?!..", "no terminator", "a_b.c'd!")) {
+            Matcher matcher = regex.matcher(content);
+            int[] bounds = SentenceTokenizer.tokenize(content);
+            int i = 0;
+            while (matcher.find()) {
+                assertEquals(matcher.start(), bounds[i++], content);
+                assertEquals(matcher.end(), bounds[i++], content);
+            }
+            assertEquals(bounds.length, i, content);
+        }
+    }
+
+    @Test
+    @DisplayName("Test SentenceTokenizer handles a long line without a terminator in linear time.")
+    void testSentenceTokenizerOnLongUnterminatedLine() {
+        char[] chars = new char[5_000_000];
+        Arrays.fill(chars, 'a');
+        String content = "Short one. " + new String(chars);
+        int[] bounds = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> SentenceTokenizer.tokenize(content));
+        assertArrayEquals(new int[]{0, "Short one.".length()}, bounds);
+    }
+
+    @Test
+    @DisplayName("Test DirectoryAnalyzer streams a result per file and aggregates the counts.")
+    void testDirectoryAnalyzer() {
+        Map<Path, FileInformation> results = new ConcurrentHashMap<>();
+        DirectoryInformation information;
+        TermFrequencies frequencies;
+        try (DirectoryAnalyzer directoryAnalyzer = new DirectoryAnalyzer(3)) {
+            information = directoryAnalyzer.analyze("src/test/resources/dir1", searchWord, results::put);
+            frequencies = directoryAnalyzer.termFrequencies("src/test/resources/dir1");
+        }
+        assertEquals(information.getTotalWordCount(), frequencies.getCount(searchWord));
+        assertEquals(4, information.getAnalyzedFiles());
+        assertEquals(2, information.getMatchingFiles());
+        assertEquals(2, information.getTotalWordCount());
+        assertTrue(information.getFailures().isEmpty());
+        assertEquals(4, results.size());
+        FileInformation test3 = results.get(Paths.get("src/test/resources/dir1/dir2/dir3/test3.txt"));
+        assertEquals(1, test3.getWordCount());
+    }
+
+    @Test
+    @DisplayName("Test DirectoryAnalyzer.termFrequencies() throws the failures instead of leaving files out of the totals.")
+    void testDirectoryTermFrequenciesReportsFailures() {
+        FileAnalyzer failing = new FileAnalyzer() {
+            @Override
+            public TermFrequencies termFrequencies(String pathToFile) {
+                if (pathToFile.endsWith("text2.txt")) {
+                    throw new RuntimeException("unreadable");
+                }
+                return super.termFrequencies(pathToFile);
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try (DirectoryAnalyzer directoryAnalyzer = new DirectoryAnalyzer(failing, executor, 4)) {
+            Exception exception = assertThrows(RuntimeException.class,
+                    () -> directoryAnalyzer.termFrequencies("src/test/resources/dir1"));
+            assertEquals(format("Failed to count the terms of '%s' (1 files failed).",
+                    Paths.get("src/test/resources/dir1/text2.txt")), exception.getMessage());
+            assertEquals("unreadable", exception.getCause().getMessage());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private void fillFileWithContent(File file) {
         try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
             byte[] bytes = testContent.getBytes(StandardCharsets.UTF_8);
@@ -148,4 +667,18 @@ class FileAnalyzerTest {
         }
     }
 
+    private static class ChunkedReader extends StringReader {
+        private final int chunkSize;
+
+        ChunkedReader(String content, int chunkSize) {
+            super(content);
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(length, chunkSize));
+        }
+    }
+
 }
\ No newline at end of file
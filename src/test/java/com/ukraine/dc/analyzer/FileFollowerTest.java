@@ -0,0 +1,79 @@
+package com.ukraine.dc.analyzer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileFollowerTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    @DisplayName("Test poll() analyzes only appended bytes and completes split sentences and characters.")
+    void testPollReadsAppendedBytes() throws IOException {
+        Path log = root.resolve("app.log");
+        byte[] cyrillic = "\u041f\u0440\u0438\u0432\u0435\u0442 hello.".getBytes(StandardCharsets.UTF_8);
+        Files.write(log, "Say hello. Half a hel".getBytes(StandardCharsets.UTF_8));
+        FileFollower follower = new FileFollower(log.toString(), "hello");
+
+        FileInformation first = follower.poll();
+        assertEquals(1, first.getWordCount());
+        assertEquals(List.of("Say hello."), first.getSentences());
+
+        append(log, "lo sentence. \u0414".getBytes(StandardCharsets.UTF_8));
+        append(log, new byte[]{cyrillic[0]});
+        FileInformation second = follower.poll();
+        assertEquals(2, second.getWordCount());
+        assertEquals(List.of(" Half a hello sentence."), second.getSentences());
+
+        append(log, Arrays.copyOfRange(cyrillic, 1, cyrillic.length));
+        FileInformation third = follower.poll();
+        assertEquals(3, third.getWordCount());
+        assertEquals(List.of(" \u0414\u041f\u0440\u0438\u0432\u0435\u0442 hello."), third.getSentences());
+
+        assertTrue(follower.poll().getSentences().isEmpty());
+        assertEquals(Files.size(log), follower.getOffset());
+    }
+
+    @Test
+    @DisplayName("Test poll() starts over when the file is truncated or replaced by a rotation.")
+    void testPollDetectsTruncationAndRotation() throws IOException {
+        Path log = root.resolve("app.log");
+        Files.write(log, "First hello. Second hello.".getBytes(StandardCharsets.UTF_8));
+        FileFollower follower = new FileFollower(log.toString(), "hello");
+        assertEquals(2, follower.poll().getWordCount());
+
+        Files.write(log, "hello!".getBytes(StandardCharsets.UTF_8), StandardOpenOption.TRUNCATE_EXISTING);
+        FileInformation truncated = follower.poll();
+        assertEquals(3, truncated.getWordCount());
+        assertEquals(List.of("hello!"), truncated.getSentences());
+        assertEquals(1, follower.getResetCount());
+
+        Path rotated = Files.write(root.resolve("app.log.new"),
+                "Rotated hello, and more text after it.".getBytes(StandardCharsets.UTF_8));
+        Files.move(log, root.resolve("app.log.1"));
+        assertTrue(follower.poll().getSentences().isEmpty());
+        Files.move(rotated, log, StandardCopyOption.ATOMIC_MOVE);
+        FileInformation next = follower.poll();
+        assertEquals(4, next.getWordCount());
+        assertEquals(List.of("Rotated hello, and more text after it."), next.getSentences());
+        assertEquals(2, follower.getResetCount());
+    }
+
+    private static void append(Path file, byte[] content) throws IOException {
+        Files.write(file, content, StandardOpenOption.APPEND);
+    }
+
+}
@@ -0,0 +1,140 @@
+package com.ukraine.dc.analyzer;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvertedIndexTest {
+    private static final String FIRST_CONTENT = "Hello, world! World hello.\r\nHe said hello.\nHELLOhello! hello, i'm fine.";
+    private static final String SECOND_CONTENT = "\u041f\u0440\u0438\u0432\u0435\u0442 hello. Nothing here? Hello_world.";
+
+    private final FileAnalyzer analyzer = new FileAnalyzer();
+
+    @TempDir
+    Path root;
+
+    private Path indexFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.createDirectories(root.resolve("data/nested"));
+        Files.write(root.resolve("data/first.txt"), FIRST_CONTENT.getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("data/nested/second.txt"), SECOND_CONTENT.getBytes(StandardCharsets.UTF_8));
+        Files.write(root.resolve("data/empty.txt"), new byte[0]);
+        indexFile = root.resolve("index.bin");
+    }
+
+    @Test
+    @DisplayName("Test query() returns the same information as analyze() for every file.")
+    void testQueryMatchesAnalyze() {
+        InvertedIndex index = InvertedIndex.open(indexFile.toString(), root.resolve("data").toString());
+        assertEquals(3, index.update());
+        for (String word : List.of("hello", "HeLLo", "l", "world", "\u043f\u0440\u0438", "hello, w", "fine.")) {
+            assertSameAsAnalyzer(index.query(word), word);
+        }
+    }
+
+    @Test
+    @DisplayName("Test analyze() answers for one indexed file and throws for a file that is not indexed.")
+    void testAnalyzeSingleFile() throws IOException {
+        InvertedIndex index = InvertedIndex.open(indexFile.toString(), root.resolve("data").toString());
+        index.update();
+        for (String word : List.of("hello", "ello", "HELLOhello", "l", "world", "hello, w", "missing")) {
+            for (String name : List.of("data/first.txt", "data/nested/second.txt")) {
+                String path = root.resolve(name).toString();
+                FileInformation expected = analyzer.analyze(path, word);
+                FileInformation actual = index.analyze(path, word);
+                assertEquals(expected.getWordCount(), actual.getWordCount(), word);
+                assertEquals(expected.getSentences(), actual.getSentences(), word);
+            }
+        }
+
+        String relative = Paths.get("").toAbsolutePath().relativize(root.resolve("data/first.txt")).toString();
+        assertEquals(analyzer.analyze(relative, "hello").getSentences(), index.analyze(relative, "hello").getSentences());
+        for (String name : List.of("data/empty.txt", "data/missing.txt")) {
+            String path = root.resolve(name).toString();
+            Exception expected = assertThrows(RuntimeException.class, () -> analyzer.analyze(path, "hello"));
+            Exception actual = assertThrows(RuntimeException.class, () -> index.analyze(path, "hello"));
+            assertEquals(expected.getMessage(), actual.getMessage());
+        }
+
+        Path added = Files.write(root.resolve("data/added.txt"), "hello.".getBytes(StandardCharsets.UTF_8));
+        Exception exception = assertThrows(IllegalArgumentException.class, () -> index.analyze(added.toString(), "hello"));
+        assertEquals(String.format("The file '%s' is not in the index.", added), exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test the index is loaded from disk and only changed files are reindexed.")
+    void testIncrementalUpdate() throws IOException {
+        InvertedIndex.open(indexFile.toString(), root.resolve("data").toString()).update();
+
+        InvertedIndex reopened = InvertedIndex.open(indexFile.toString(), root.resolve("data").toString());
+        assertEquals(3, reopened.getFileCount());
+        assertSameAsAnalyzer(reopened.query("hello"), "hello");
+
+        Path first = root.resolve("data/first.txt");
+        Files.write(first, "Bye, hello.".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(first, FileTime.fromMillis(Files.getLastModifiedTime(first).toMillis() + 2000));
+        Files.delete(root.resolve("data/empty.txt"));
+        assertEquals(1, reopened.update());
+        assertEquals(2, reopened.getFileCount());
+        assertSameAsAnalyzer(reopened.query("hello"), "hello");
+        assertEquals(List.of("Bye, hello."), reopened.analyze(first.toString(), "hello").getSentences());
+    }
+
+    @Test
+    @DisplayName("Test queries reindex the files that changed since the last update() instead of reading stale offsets.")
+    void testQueryReindexesChangedFiles() throws IOException {
+        InvertedIndex index = InvertedIndex.open(indexFile.toString(), root.resolve("data").toString());
+        index.update();
+        Path first = root.resolve("data/first.txt");
+        Files.write(first, "A new hello. Hello there!".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(first, FileTime.fromMillis(Files.getLastModifiedTime(first).toMillis() + 2000));
+        Files.delete(root.resolve("data/nested/second.txt"));
+
+        Map<String, FileInformation> result = index.query("hello");
+
+        assertEquals(Set.of(first.toString()), result.keySet());
+        assertEquals(List.of("A new hello.", " Hello there!"), result.get(first.toString()).getSentences());
+        assertEquals(2, index.getFileCount());
+        assertEquals(2, InvertedIndex.open(indexFile.toString(), root.resolve("data").toString()).getFileCount());
+
+        Files.write(first, "Bye, hello.".getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(first, FileTime.fromMillis(Files.getLastModifiedTime(first).toMillis() + 4000));
+        assertEquals(List.of("Bye, hello."), index.analyze(first.toString(), "hello").getSentences());
+    }
+
+    @Test
+    @DisplayName("Test query() when word is empty, should throw an exception with a correspondent message.")
+    void testQueryWhenWordIsEmpty() {
+        InvertedIndex index = InvertedIndex.open(indexFile.toString(), root.toString());
+        Exception exception = Assertions.assertThrows(IllegalArgumentException.class, () -> index.query(""));
+        assertEquals("The 'word' parameter shouldn't be empty or null.", exception.getMessage());
+    }
+
+    private void assertSameAsAnalyzer(Map<String, FileInformation> result, String word) {
+        for (String name : List.of("data/first.txt", "data/nested/second.txt")) {
+            String path = root.resolve(name).toString();
+            FileInformation expected = analyzer.analyze(path, word);
+            FileInformation actual = result.get(path);
+            if (expected.getWordCount() == 0) {
+                assertNull(actual, word);
+            } else {
+                assertEquals(expected.getWordCount(), actual.getWordCount(), word);
+                assertEquals(expected.getSentences(), actual.getSentences(), word);
+            }
+        }
+    }
+
+}
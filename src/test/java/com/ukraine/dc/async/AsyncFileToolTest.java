@@ -0,0 +1,139 @@
+package com.ukraine.dc.async;
+
+import com.ukraine.dc.analyzer.FileAnalyzer;
+import com.ukraine.dc.analyzer.FileInformation;
+import com.ukraine.dc.manager.CopyOptions;
+import com.ukraine.dc.manager.FileManager;
+import com.ukraine.dc.manager.OperationResult;
+import com.ukraine.dc.operation.CancellationToken;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncFileToolTest {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @TempDir
+    Path root;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Test the futures complete with the results of the blocking operations.")
+    void testOperationsComplete() throws Exception {
+        Path source = Files.createDirectories(root.resolve("source/nested"));
+        Files.write(source.resolve("a.txt"), "Say hello. Bye.".getBytes(StandardCharsets.UTF_8));
+        Path destination = Files.createDirectory(root.resolve("destination"));
+        AsyncFileTool tool = new AsyncFileTool(executor);
+
+        OperationResult copied = tool.copy(root.resolve("source").toString(), destination.toString(),
+                CopyOptions.defaults().parallelism(2)).get(10, TimeUnit.SECONDS);
+        FileInformation information = tool.analyze(source.resolve("a.txt").toString(), "hello").get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, copied.getProcessedFiles());
+        assertEquals(1, tool.countFiles(destination.toString()).get(10, TimeUnit.SECONDS));
+        assertEquals(1, information.getWordCount());
+        tool.deleteFiles(destination.resolve("source").toString()).get(10, TimeUnit.SECONDS);
+        assertEquals(0, Files.list(destination).count());
+    }
+
+    @Test
+    @DisplayName("Test a cancelled future never runs its operation.")
+    void testCancelBeforeStart() throws Exception {
+        Path file = Files.write(root.resolve("a.txt"), "hello".getBytes(StandardCharsets.UTF_8));
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(blocker));
+        AsyncFileTool tool = new AsyncFileTool(executor);
+
+        CompletableFuture<Void> deletion = tool.deleteFiles(file.toString());
+        assertTrue(deletion.cancel(true));
+        blocker.countDown();
+        executor.submit(() -> null).get(10, TimeUnit.SECONDS);
+
+        assertTrue(deletion.isCancelled());
+        assertTrue(Files.exists(file));
+    }
+
+    @Test
+    @DisplayName("Test an operation past its deadline fails with a TimeoutException.")
+    void testTimeoutFailsOperation() throws IOException {
+        Path file = Files.write(root.resolve("a.txt"), "Say hello.".getBytes(StandardCharsets.UTF_8));
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(blocker));
+        AsyncFileTool tool = new AsyncFileTool(executor, new FileAnalyzer(), Duration.ofMillis(50));
+
+        CompletableFuture<FileInformation> analysis = tool.analyze(file.toString(), "hello");
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> analysis.get(10, TimeUnit.SECONDS));
+        blocker.countDown();
+
+        assertTrue(exception.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    @DisplayName("Test the options of an async copy stay usable for a later synchronous copy.")
+    void testOptionsAreNotCancelled() throws Exception {
+        Path source = Files.createDirectories(root.resolve("source"));
+        Files.write(source.resolve("a.txt"), "Say hello.".getBytes(StandardCharsets.UTF_8));
+        Path first = Files.createDirectory(root.resolve("first"));
+        Path second = Files.createDirectory(root.resolve("second"));
+        CopyOptions options = CopyOptions.defaults().parallelism(2);
+
+        OperationResult copied = new AsyncFileTool(executor).copy(source.toString(), first.toString(), options)
+                .get(10, TimeUnit.SECONDS);
+        OperationResult copiedAgain = FileManager.copy(source.toString(), second.toString(), options);
+
+        assertEquals(1, copied.getProcessedFiles());
+        assertEquals(1, copiedAgain.getProcessedFiles());
+        assertSame(CancellationToken.NONE, options.getCancellationToken());
+        assertTrue(Files.exists(second.resolve("source/a.txt")));
+    }
+
+    @Test
+    @DisplayName("Test the token of the options still stops an async copy and isn't cancelled by it.")
+    void testOptionsTokenIsLinked() throws Exception {
+        Path source = Files.createDirectories(root.resolve("source"));
+        Files.write(source.resolve("a.txt"), "Say hello.".getBytes(StandardCharsets.UTF_8));
+        Path first = Files.createDirectory(root.resolve("first"));
+        Path second = Files.createDirectory(root.resolve("second"));
+        AsyncFileTool tool = new AsyncFileTool(executor);
+
+        CancellationToken live = new CancellationToken();
+        OperationResult copied = tool.copy(source.toString(), first.toString(),
+                CopyOptions.defaults().parallelism(2).cancellationToken(live)).get(10, TimeUnit.SECONDS);
+        assertEquals(1, copied.getProcessedFiles());
+        assertFalse(live.isCancelled());
+
+        CancellationToken cancelled = new CancellationToken();
+        CountDownLatch blocker = new CountDownLatch(1);
+        executor.execute(() -> awaitQuietly(blocker));
+        CompletableFuture<OperationResult> copy = tool.copy(source.toString(), second.toString(),
+                CopyOptions.defaults().parallelism(2).cancellationToken(cancelled));
+        cancelled.cancel();
+        blocker.countDown();
+
+        assertThrows(CancellationException.class, () -> copy.get(10, TimeUnit.SECONDS));
+        assertFalse(Files.exists(second.resolve("source/a.txt")));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,132 @@
+package com.ukraine.dc.daemon;
+
+import com.ukraine.dc.analyzer.FileAnalyzer;
+import com.ukraine.dc.analyzer.SentenceCache;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalyzerDaemonTest {
+
+    @TempDir
+    Path root;
+
+    @Test
+    @DisplayName("Test the daemon answers every request line with a response tagged by its id.")
+    void testServe() throws IOException {
+        Path source = Files.createDirectories(root.resolve("source"));
+        Path file = Files.write(source.resolve("a.txt"), "Say hello. Bye. Hello again.".getBytes(StandardCharsets.UTF_8));
+        Files.write(source.resolve("b.txt"), "Bye.".getBytes(StandardCharsets.UTF_8));
+        Path destination = Files.createDirectory(root.resolve("destination"));
+        SentenceCache cache = new SentenceCache(1024 * 1024);
+        String requests = String.join("\n",
+                request(1, "analyze", "path", file.toString(), "word", "hello"),
+                request(2, "count", "path", source.toString()),
+                request(3, "copy", "from", source.toString(), "to", destination.toString()),
+                request(4, "analyze", "path", file.toString(), "word", "hello"),
+                "{\"id\":\"broken\",\"op\":\"unknown\"}",
+                "not json");
+
+        Map<String, String> responses = serve(new AnalyzerDaemon(new FileAnalyzer(cache), 2), requests);
+        String analyzed = "{\"id\":1,\"wordCount\":2,\"sentences\":[\"Say hello.\",\" Hello again.\"]}";
+
+        assertEquals(6, responses.size());
+        assertEquals(analyzed, responses.get("1"));
+        assertEquals(analyzed.replace("\"id\":1", "\"id\":4"), responses.get("4"));
+        assertEquals("{\"id\":2,\"files\":2}", responses.get("2"));
+        assertEquals("{\"id\":3,\"processedFiles\":2,\"processedBytes\":32,\"skippedFiles\":0,\"failures\":{}}",
+                responses.get("3"));
+        assertEquals("{\"id\":\"broken\",\"error\":\"Unknown operation: unknown\"}", responses.get("broken"));
+        assertTrue(responses.get("null").startsWith("{\"id\":null,\"error\":"));
+        assertTrue(Files.exists(destination.resolve("source/a.txt")));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("Test the daemon answers requests sent to its loopback port after the token.")
+    void testListen() throws IOException {
+        Path file = Files.write(root.resolve("a.txt"), "Say hello. Bye.".getBytes(StandardCharsets.UTF_8));
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(new FileAnalyzer(), 2);
+             Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.listen(0, "secret"))) {
+            Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+            writer.write("secret\r\n" + request(7, "analyze", "path", file.toString(), "word", "hello") + "\n");
+            writer.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+            assertEquals("{\"id\":7,\"wordCount\":1,\"sentences\":[\"Say hello.\"]}", reader.readLine());
+        }
+    }
+
+    @Test
+    @DisplayName("Test the daemon closes a connection that doesn't send its token.")
+    void testListenRejectsWrongToken() throws IOException {
+        Path file = Files.write(root.resolve("a.txt"), "Say hello. Bye.".getBytes(StandardCharsets.UTF_8));
+        try (AnalyzerDaemon daemon = new AnalyzerDaemon(new FileAnalyzer(), 2)) {
+            int port = daemon.listen(0, "secret");
+            for (String firstLine : List.of("wrong", request(7, "analyze", "path", file.toString(), "word", "hello"))) {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+                    Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8);
+                    writer.write(firstLine + "\n" + request(8, "count", "path", root.toString()) + "\n");
+                    writer.flush();
+                    BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+
+                    assertEquals("{\"id\":null,\"error\":\"The token is not valid.\"}", reader.readLine());
+                    assertNull(reader.readLine());
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> daemon.listen(0, " "));
+        }
+        Exception exception = assertThrows(IllegalArgumentException.class,
+                () -> AnalyzerDaemon.run(new String[]{"--daemon", "--port", "0"}));
+        assertEquals("The daemon needs a --token-file to listen on a port.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Test request lines are parsed and strings are escaped.")
+    void testJsonLine() {
+        Map<String, Object> request = JsonLine.parse(" {\"a\" : \"x\\\"\\u0041\\n\", \"b\":-12, \"c\":true, \"d\":null} ");
+        StringBuilder escaped = new StringBuilder();
+        JsonLine.appendString(escaped, "x\"A\n\u0001");
+
+        assertEquals("x\"A\n", request.get("a"));
+        assertEquals(-12L, request.get("b"));
+        assertEquals(Boolean.TRUE, request.get("c"));
+        assertTrue(request.containsKey("d"));
+        assertEquals("\"x\\\"A\\n\\u0001\"", escaped.toString());
+        assertThrows(IllegalArgumentException.class, () -> JsonLine.parse("{\"a\":[1]}"));
+        assertThrows(IllegalArgumentException.class, () -> JsonLine.parse("{\"a\":1"));
+    }
+
+    private static String request(int id, String operation, String... parameters) {
+        StringBuilder request = new StringBuilder("{\"id\":").append(id).append(",\"op\":\"").append(operation).append('"');
+        for (int i = 0; i < parameters.length; i += 2) {
+            request.append(",\"").append(parameters[i]).append("\":");
+            JsonLine.appendString(request, parameters[i + 1]);
+        }
+        return request.append('}').toString();
+    }
+
+    private static Map<String, String> serve(AnalyzerDaemon daemon, String requests) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (daemon) {
+            daemon.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+        }
+        Map<String, String> responses = new HashMap<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            String id = line.substring("{\"id\":".length(), line.indexOf(',')).replace("\"", "");
+            responses.put(id, line);
+        }
+        return responses;
+    }
+
+}
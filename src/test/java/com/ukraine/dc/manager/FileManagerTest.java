@@ -1,12 +1,25 @@
 package com.ukraine.dc.manager;
 
+import com.ukraine.dc.operation.CancellationToken;
+import com.ukraine.dc.operation.OperationMetrics;
+import com.ukraine.dc.operation.Phase;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.stream.Collectors;
 
 import static java.lang.String.format;
 import static org.junit.jupiter.api.Assertions.*;
@@ -36,6 +49,25 @@ class FileManagerTest {
         assertEquals(1, FileManager.countDirs("src/test/resources/emptyDir"));
     }
 
+    @Test
+    void testStats() {
+        for (int parallelism : new int[]{1, 4}) {
+            DirectoryStats stats = FileManager.stats("src/test/resources/dir1", 2, parallelism);
+            assertEquals(4, stats.getFileCount());
+            assertEquals(3, stats.getDirectoryCount());
+            assertEquals(43, stats.getTotalBytes());
+            assertEquals(2, stats.getLargestFiles().size());
+            assertEquals("test.txt", stats.getLargestFiles().get(0).getPath().getFileName().toString());
+            assertEquals(13, stats.getLargestFiles().get(0).getSize());
+            assertEquals(12, stats.getLargestFiles().get(1).getSize());
+
+            DirectoryStats fileStats = FileManager.stats("src/test/resources/dir1/dir2/test.txt", 2, parallelism);
+            assertEquals(1, fileStats.getFileCount());
+            assertEquals(0, fileStats.getDirectoryCount());
+            assertEquals(13, fileStats.getTotalBytes());
+        }
+    }
+
     @Test
     void testCopyFile() {
         String from = "src/test/resources/text1.txt";
@@ -144,6 +176,514 @@ class FileManagerTest {
         assertEquals("Invalid parameter 'to' - it's not a directory.", exception.getMessage());
     }
 
+    @Test
+    void testCopyLargeFileOverwritesLongerDestination() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            byte[] content = new byte[3 * 1024 * 1024 + 17];
+            new Random(42).nextBytes(content);
+            File source = new File(sourceDir, "large.bin");
+            Files.write(source.toPath(), content);
+            Files.write(new File(destinationDir, "large.bin").toPath(), new byte[content.length + 1000]);
+
+            FileManager.copy(source.getPath(), destinationDir.getPath());
+
+            assertArrayEquals(content, Files.readAllBytes(new File(destinationDir, "large.bin").toPath()));
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testParallelCopyFolderWithFilesToAnotherFolder() throws IOException {
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            OperationResult result = FileManager.copy("src/test/resources/dir1", destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(3).queueCapacity(1));
+
+            assertTrue(result.isSuccessful());
+            assertEquals(4, result.getProcessedFiles());
+            File copied = new File(destinationDir, "dir1");
+            assertEquals("Hello, test3", readContentByPath(new File(copied, "dir2/dir3/test3.txt").getPath()));
+            assertEquals("text2.txt", readContentByPath(new File(copied, "text2.txt").getPath()));
+            assertEquals(4, FileManager.countFiles(copied.getPath()));
+        } finally {
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testParallelCopyReportsMetrics() throws IOException {
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            OperationMetrics metrics = new OperationMetrics();
+            OperationResult result = FileManager.copy("src/test/resources/dir1", destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(2).listener(metrics));
+
+            assertEquals(4, metrics.getFilesStarted());
+            assertEquals(4, metrics.getFilesCompleted());
+            assertEquals(0, metrics.getFilesFailed());
+            assertEquals(result.getProcessedBytes(), metrics.getBytesWritten());
+            assertEquals(result.getProcessedBytes(), metrics.getBytesRead());
+            assertEquals(4, metrics.getLatency(Phase.COPY).getCount());
+            assertEquals(0, metrics.estimateRemainingNanos());
+        } finally {
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testSequentialOperationsReportMetrics() throws IOException {
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            OperationMetrics copyMetrics = new OperationMetrics();
+            OperationMetrics countMetrics = new OperationMetrics();
+            OperationMetrics deleteMetrics = new OperationMetrics();
+            long size = FileManager.stats("src/test/resources/dir1").getTotalBytes();
+            File copied = new File(destinationDir, "dir1");
+
+            FileManager.copy("src/test/resources/dir1", destinationDir.getPath(), copyMetrics);
+            assertEquals(4, FileManager.countFiles(copied.getPath(), countMetrics));
+            FileManager.deleteFiles(copied, deleteMetrics);
+
+            assertEquals(4, copyMetrics.getFilesCompleted());
+            assertEquals(size, copyMetrics.getBytesRead());
+            assertEquals(size, copyMetrics.getBytesWritten());
+            assertEquals(4, copyMetrics.getLatency(Phase.COPY).getCount());
+            assertEquals(4, countMetrics.getFilesCompleted());
+            assertEquals(4, deleteMetrics.getFilesCompleted());
+            assertFalse(copied.exists());
+        } finally {
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testMoveAndDeleteCompleteEveryStartedFile() throws IOException {
+        File first = Files.createTempDirectory("first").toFile();
+        File second = Files.createTempDirectory("second").toFile();
+        try {
+            FileManager.copy("src/test/resources/dir1", first.getPath());
+            OperationMetrics sequentialMove = new OperationMetrics();
+            OperationMetrics parallelMove = new OperationMetrics();
+            OperationMetrics fileMove = new OperationMetrics();
+            OperationMetrics delete = new OperationMetrics();
+
+            FileManager.move(new File(first, "dir1").getPath(), second.getPath(), sequentialMove);
+            FileManager.move(new File(second, "dir1").getPath(), first.getPath(),
+                    CopyOptions.defaults().parallelism(2).listener(parallelMove));
+            File file = Objects.requireNonNull(new File(first, "dir1").listFiles(File::isFile))[0];
+            FileManager.move(file.getPath(), second.getPath(), fileMove);
+            FileManager.deleteFiles(new File(first, "dir1"), delete);
+
+            for (OperationMetrics metrics : List.of(sequentialMove, parallelMove, fileMove, delete)) {
+                assertEquals(metrics.getFilesStarted(), metrics.getFilesCompleted() + metrics.getFilesFailed());
+            }
+            assertEquals(4, sequentialMove.getFilesStarted());
+            assertEquals(4, parallelMove.getFilesStarted());
+            assertEquals(1, fileMove.getFilesStarted());
+            assertEquals(3, delete.getFilesStarted());
+        } finally {
+            removeTempFiles(first);
+            removeTempFiles(second);
+        }
+    }
+
+    @Test
+    void testParallelCopyWhenCancelledCopiesNothing() throws IOException {
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            CancellationToken token = new CancellationToken();
+            token.cancel();
+
+            assertThrows(CancellationException.class, () -> FileManager.copy("src/test/resources/dir1",
+                    destinationDir.getPath(), CopyOptions.defaults().cancellationToken(token)));
+            assertThrows(CancellationException.class, () -> FileManager.countFiles("src/test/resources/dir1", token));
+            assertEquals(0, FileManager.countFiles(new File(destinationDir, "dir1").getPath()));
+        } finally {
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testFindAndLinkDuplicates() throws IOException {
+        File root = Files.createTempDirectory("duplicates").toFile();
+        try {
+            byte[] large = new byte[20000];
+            new Random(1).nextBytes(large);
+            byte[] sameEdges = large.clone();
+            sameEdges[10000]++;
+            new File(root, "a/b").mkdirs();
+            Files.write(new File(root, "one.bin").toPath(), large);
+            Files.write(new File(root, "a/two.bin").toPath(), large);
+            Files.write(new File(root, "a/b/three.bin").toPath(), large);
+            Files.write(new File(root, "a/middle.bin").toPath(), sameEdges);
+            Files.write(new File(root, "small.txt").toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+            Files.write(new File(root, "a/small.txt").toPath(), "hello".getBytes(StandardCharsets.UTF_8));
+            Files.write(new File(root, "other.txt").toPath(), "world".getBytes(StandardCharsets.UTF_8));
+
+            DuplicateReport report = FileManager.findDuplicates(root.getPath(), 3);
+
+            assertEquals(2, report.getDuplicateSets().size());
+            assertEquals(List.of(new File(root, "a/b/three.bin").toPath(), new File(root, "a/two.bin").toPath(),
+                    new File(root, "one.bin").toPath()), report.getDuplicateSets().get(0).getPaths());
+            assertEquals(3, report.getDuplicateFiles());
+            assertEquals(2 * 20000 + 5, report.getReclaimableBytes());
+
+            Path userFile = Files.write(new File(root, "a/two.bin.link.tmp").toPath(), "keep".getBytes(StandardCharsets.UTF_8));
+            OperationResult result = FileManager.linkDuplicates(report);
+            assertTrue(result.isSuccessful());
+            assertEquals(3, result.getProcessedFiles());
+            assertEquals("keep", readContentByPath(userFile.toString()));
+            assertEquals(List.of("b", "middle.bin", "small.txt", "two.bin", "two.bin.link.tmp"),
+                    Arrays.stream(new File(root, "a").list()).sorted().collect(Collectors.toList()));
+            assertTrue(Files.isSameFile(new File(root, "one.bin").toPath(), new File(root, "a/b/three.bin").toPath()));
+            assertFalse(Files.isSameFile(new File(root, "one.bin").toPath(), new File(root, "a/middle.bin").toPath()));
+            assertTrue(FileManager.findDuplicates(root.getPath(), 1).getDuplicateSets().isEmpty());
+        } finally {
+            removeTempFiles(root);
+        }
+    }
+
+    @Test
+    void testLinkDuplicatesSkipsFilesChangedAfterTheScan() throws IOException {
+        File root = Files.createTempDirectory("duplicates").toFile();
+        try {
+            byte[] content = new byte[20000];
+            new Random(3).nextBytes(content);
+            byte[] changed = content.clone();
+            changed[100]++;
+            Path one = Files.write(new File(root, "one.bin").toPath(), content);
+            Path two = Files.write(new File(root, "two.bin").toPath(), content);
+            Path three = Files.write(new File(root, "three.bin").toPath(), content);
+
+            DuplicateReport report = FileManager.findDuplicates(root.getPath(), 2);
+            FileTime modified = Files.getLastModifiedTime(three);
+            Files.write(three, changed);
+            Files.setLastModifiedTime(three, modified);
+            OperationResult result = FileManager.linkDuplicates(report);
+
+            assertEquals(1, result.getProcessedFiles());
+            assertEquals(Set.of(three.toString()), result.getFailures().keySet());
+            assertTrue(Files.isSameFile(one, two));
+            assertArrayEquals(changed, Files.readAllBytes(three));
+
+            Files.write(three, content);
+            report = FileManager.findDuplicates(root.getPath(), 2);
+            Files.write(one, changed);
+            Files.setLastModifiedTime(one, Files.getLastModifiedTime(three));
+            result = FileManager.linkDuplicates(report);
+
+            assertEquals(0, result.getProcessedFiles());
+            assertArrayEquals(changed, Files.readAllBytes(two));
+            assertArrayEquals(content, Files.readAllBytes(three));
+        } finally {
+            removeTempFiles(root);
+        }
+    }
+
+    @Test
+    void testParallelCopyLinksDuplicates() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            for (int i = 0; i < 6; i++) {
+                fillFileWithContent(new File(sourceDir, "file" + i + ".txt").getPath());
+            }
+            Files.write(new File(sourceDir, "unique.txt").toPath(), "unique".getBytes(StandardCharsets.UTF_8));
+            Files.write(new File(sourceDir, "same-size.txt").toPath(), "world".getBytes(StandardCharsets.UTF_8));
+
+            OperationResult result = FileManager.copy(sourceDir.getPath(), destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(3).linkDuplicates(true));
+
+            File copied = new File(destinationDir, sourceDir.getName());
+            assertTrue(result.isSuccessful());
+            assertEquals(8, result.getProcessedFiles());
+            assertEquals(5 + 6 + 5, result.getProcessedBytes());
+            assertFalse(Files.isSameFile(new File(copied, "file0.txt").toPath(), new File(copied, "same-size.txt").toPath()));
+            assertEquals("world", readContentByPath(new File(copied, "same-size.txt").getPath()));
+            for (int i = 1; i < 6; i++) {
+                assertTrue(Files.isSameFile(new File(copied, "file0.txt").toPath(), new File(copied, "file" + i + ".txt").toPath()));
+            }
+            assertEquals("hello", readContentByPath(new File(copied, "file5.txt").getPath()));
+            assertEquals("unique", readContentByPath(new File(copied, "unique.txt").getPath()));
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testCopyOverLinkedDuplicateKeepsOtherLinks() throws IOException {
+        File root = Files.createTempDirectory("duplicates").toFile();
+        File updates = Files.createTempDirectory("updates").toFile();
+        try {
+            byte[] content = new byte[20000];
+            new Random(2).nextBytes(content);
+            byte[] changed = content.clone();
+            changed[0]++;
+            Files.write(new File(root, "one.bin").toPath(), content);
+            Files.write(new File(root, "two.bin").toPath(), content);
+            Files.write(new File(root, "three.bin").toPath(), content);
+            Files.write(new File(updates, "two.bin").toPath(), changed);
+            Files.write(new File(updates, "three.bin").toPath(), changed);
+            assertTrue(FileManager.linkDuplicates(FileManager.findDuplicates(root.getPath(), 2)).isSuccessful());
+
+            FileManager.copy(new File(updates, "two.bin").getPath(), root.getPath());
+            FileManager.copy(new File(updates, "three.bin").getPath(), root.getPath(),
+                    CopyOptions.defaults().incremental(true).compareContent(true).deltaThreshold(0).blockSize(4096));
+
+            assertArrayEquals(content, Files.readAllBytes(new File(root, "one.bin").toPath()));
+            assertArrayEquals(changed, Files.readAllBytes(new File(root, "two.bin").toPath()));
+            assertArrayEquals(changed, Files.readAllBytes(new File(root, "three.bin").toPath()));
+        } finally {
+            removeTempFiles(root);
+            removeTempFiles(updates);
+        }
+    }
+
+    @Test
+    void testParallelMoveReportsFailuresAndKeepsFailedSources() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            File nested = new File(sourceDir, "nested");
+            nested.mkdir();
+            fillFileWithContent(new File(nested, "ok.txt").getPath());
+            fillFileWithContent(new File(nested, "conflict.txt").getPath());
+            new File(destinationDir, sourceDir.getName() + "/nested/conflict.txt").mkdirs();
+
+            OperationResult result = FileManager.move(sourceDir.getPath(), destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(2));
+
+            assertFalse(result.isSuccessful());
+            assertEquals(1, result.getProcessedFiles());
+            assertEquals(List.of(new File(nested, "conflict.txt").getPath()), List.copyOf(result.getFailures().keySet()));
+            assertEquals("[conflict.txt]", getFolderList(nested));
+            assertEquals("hello", readContentByPath(new File(destinationDir, sourceDir.getName() + "/nested/ok.txt").getPath()));
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testMoveRenamesDirectoryAndMergesIntoExistingOne() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            File nested = new File(sourceDir, "nested");
+            nested.mkdir();
+            fillFileWithContent(new File(nested, "test.txt").getPath());
+            Object fileKey = Files.readAttributes(new File(nested, "test.txt").toPath(), BasicFileAttributes.class).fileKey();
+            File existing = new File(destinationDir, sourceDir.getName());
+            existing.mkdir();
+            fillFileWithContent(new File(existing, "existing.txt").getPath());
+
+            FileManager.move(sourceDir.getPath(), destinationDir.getPath());
+
+            assertFalse(sourceDir.exists());
+            assertEquals("[existing.txt, nested]", getSortedFolderList(existing));
+            File moved = new File(existing, "nested/test.txt");
+            assertEquals("hello", readContentByPath(moved.getPath()));
+            assertEquals(fileKey, Files.readAttributes(moved.toPath(), BasicFileAttributes.class).fileKey());
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testMoveAcrossFileSystemsCopiesAndDeletesSource() throws IOException {
+        File otherFileSystem = new File("/dev/shm");
+        Assumptions.assumeTrue(otherFileSystem.isDirectory() && otherFileSystem.canWrite());
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory(otherFileSystem.toPath(), "destination").toFile();
+        try {
+            new File(sourceDir, "nested").mkdir();
+            fillFileWithContent(new File(sourceDir, "nested/test.txt").getPath());
+
+            FileManager.move(sourceDir.getPath(), destinationDir.getPath());
+
+            assertFalse(sourceDir.exists());
+            assertEquals("hello", readContentByPath(new File(destinationDir, sourceDir.getName() + "/nested/test.txt").getPath()));
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testParallelMoveRenamesBeforeCopying() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            File nested = new File(sourceDir, "nested");
+            nested.mkdir();
+            fillFileWithContent(new File(nested, "test.txt").getPath());
+            fillFileWithContent(new File(sourceDir, "top.txt").getPath());
+            Object fileKey = Files.readAttributes(new File(nested, "test.txt").toPath(), BasicFileAttributes.class).fileKey();
+            File existing = new File(destinationDir, sourceDir.getName());
+            existing.mkdir();
+            fillFileWithContent(new File(existing, "existing.txt").getPath());
+
+            OperationResult result = FileManager.move(sourceDir.getPath(), destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(2));
+
+            assertTrue(result.isSuccessful());
+            assertEquals(2, result.getProcessedFiles());
+            assertEquals(10, result.getProcessedBytes());
+            assertFalse(sourceDir.exists());
+            assertEquals("[existing.txt, nested, top.txt]", getSortedFolderList(existing));
+            File moved = new File(existing, "nested/test.txt");
+            assertEquals(fileKey, Files.readAttributes(moved.toPath(), BasicFileAttributes.class).fileKey());
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testParallelMoveAcrossFileSystemsCopiesAndDeletesSource() throws IOException {
+        File otherFileSystem = new File("/dev/shm");
+        Assumptions.assumeTrue(otherFileSystem.isDirectory() && otherFileSystem.canWrite());
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory(otherFileSystem.toPath(), "destination").toFile();
+        try {
+            new File(sourceDir, "nested").mkdir();
+            fillFileWithContent(new File(sourceDir, "nested/test.txt").getPath());
+            fillFileWithContent(new File(sourceDir, "top.txt").getPath());
+
+            OperationResult result = FileManager.move(sourceDir.getPath(), destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(2));
+
+            assertTrue(result.isSuccessful());
+            assertEquals(2, result.getProcessedFiles());
+            assertFalse(sourceDir.exists());
+            assertEquals("hello", readContentByPath(new File(destinationDir, sourceDir.getName() + "/nested/test.txt").getPath()));
+            assertEquals("hello", readContentByPath(new File(destinationDir, sourceDir.getName() + "/top.txt").getPath()));
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testIncrementalCopyStopsBetweenBlocksWhenCancelled() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            byte[] content = new byte[256 * 1024];
+            new Random(3).nextBytes(content);
+            File large = new File(sourceDir, "large.bin");
+            Files.write(large.toPath(), content);
+            File copied = new File(destinationDir, sourceDir.getName() + "/large.bin");
+            copied.getParentFile().mkdirs();
+            Files.write(copied.toPath(), new byte[content.length]);
+            assertTrue(copied.setLastModified(large.lastModified() - 5000));
+            CancellationToken token = new CancellationToken();
+            OperationMetrics metrics = new OperationMetrics() {
+                @Override
+                public void bytesRead(long bytes) {
+                    super.bytesRead(bytes);
+                    token.cancel();
+                }
+            };
+
+            assertThrows(CancellationException.class, () -> FileManager.copy(sourceDir.getPath(), destinationDir.getPath(),
+                    CopyOptions.defaults().incremental(true).deltaThreshold(0).blockSize(4096)
+                            .listener(metrics).cancellationToken(token)));
+            assertEquals(4096, metrics.getBytesRead());
+            assertNotEquals(large.lastModified(), copied.lastModified());
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testIncrementalCopySkipsUnchangedFilesAndRewritesChangedBlocks() throws IOException {
+        File sourceDir = Files.createTempDirectory("source").toFile();
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        try {
+            byte[] content = new byte[256 * 1024 + 5];
+            new Random(7).nextBytes(content);
+            File large = new File(sourceDir, "large.bin");
+            Files.write(large.toPath(), content);
+            fillFileWithContent(new File(sourceDir, "small.txt").getPath());
+            CopyOptions options = CopyOptions.defaults().incremental(true).deltaThreshold(1024).blockSize(4096);
+
+            OperationResult first = FileManager.copy(sourceDir.getPath(), destinationDir.getPath(), options);
+            assertEquals(2, first.getProcessedFiles());
+            OperationResult second = FileManager.copy(sourceDir.getPath(), destinationDir.getPath(), options);
+            assertEquals(0, second.getProcessedFiles());
+            assertEquals(2, second.getSkippedFiles());
+
+            content[100_000] ^= 1;
+            byte[] changed = Arrays.copyOf(content, content.length - 1000);
+            Files.write(large.toPath(), changed);
+            OperationResult third = FileManager.copy(sourceDir.getPath(), destinationDir.getPath(), options);
+            assertEquals(1, third.getProcessedFiles());
+            assertEquals(1, third.getSkippedFiles());
+            assertEquals(4096, third.getProcessedBytes());
+            assertArrayEquals(changed, Files.readAllBytes(new File(destinationDir, sourceDir.getName() + "/large.bin").toPath()));
+        } finally {
+            removeTempFiles(sourceDir);
+            removeTempFiles(destinationDir);
+        }
+    }
+
+    @Test
+    void testCopyWithChecksumManifestAndVerify() throws IOException {
+        File destinationDir = Files.createTempDirectory("destination").toFile();
+        File manifest = File.createTempFile("manifest", ".crc");
+        try {
+            OperationResult copy = FileManager.copy("src/test/resources/dir1", destinationDir.getPath(),
+                    CopyOptions.defaults().parallelism(2).checksumManifest(manifest.getPath()));
+            assertTrue(copy.isSuccessful());
+            List<String> lines = Files.readAllLines(manifest.toPath());
+            assertEquals(4, lines.size());
+            assertTrue(lines.get(0).endsWith("  dir1/dir2/dir3/test3.txt"));
+
+            assertTrue(FileManager.verify(destinationDir.getPath(), manifest.getPath()).isSuccessful());
+
+            File changed = new File(destinationDir, "dir1/text1.txt");
+            Files.write(changed.toPath(), "text1.txT".getBytes(StandardCharsets.UTF_8));
+            OperationResult verify = FileManager.verify(destinationDir.getPath(), manifest.getPath());
+            assertEquals(3, verify.getProcessedFiles());
+            assertEquals(List.of(changed.getPath()), List.copyOf(verify.getFailures().keySet()));
+        } finally {
+            removeTempFiles(destinationDir);
+            manifest.delete();
+        }
+    }
+
+    @Test
+    void testParallelDeleteOfDeepAndWideTree() throws IOException {
+        File root = Files.createTempDirectory("delete").toFile();
+        File deep = root;
+        for (int i = 0; i < 200; i++) {
+            deep = new File(deep, "d" + i);
+        }
+        deep.mkdirs();
+        fillFileWithContent(new File(deep, "leaf.txt").getPath());
+        for (int i = 0; i < 20; i++) {
+            File wide = new File(root, "w" + i);
+            wide.mkdir();
+            for (int j = 0; j < 10; j++) {
+                fillFileWithContent(new File(wide, j + ".txt").getPath());
+            }
+        }
+
+        OperationResult result = FileManager.delete(root.getPath(), 4);
+
+        assertTrue(result.isSuccessful());
+        assertEquals(1 + 200 + 1 + 20 + 200, result.getProcessedFiles());
+        assertFalse(root.exists());
+    }
+
     private String readContentByPath(String path) {
         StringBuilder builder = new StringBuilder();
         try (InputStream inputStream = new FileInputStream(path)) {
@@ -172,6 +712,12 @@ class FileManagerTest {
                 Arrays.asList(Objects.requireNonNull(file.list())).toString();
     }
 
+    private String getSortedFolderList(File file) {
+        String[] names = Objects.requireNonNull(file.list());
+        Arrays.sort(names);
+        return Arrays.asList(names).toString();
+    }
+
     private void clearDirectory(File file) {
         if (file.isFile()) {
             file.delete();
@@ -0,0 +1,38 @@
+package com.ukraine.dc.operation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LatencyHistogramTest {
+
+    @Test
+    @DisplayName("Test percentiles are the upper bounds of power-of-two buckets capped by the maximum.")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(100);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.record(5000);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(90 * 100 + 10 * 5000, histogram.getTotalNanos());
+        assertEquals(127, histogram.getPercentileNanos(0.5));
+        assertEquals(127, histogram.getPercentileNanos(0.9));
+        assertEquals(5000, histogram.getPercentileNanos(0.99));
+        assertEquals(90, histogram.getBuckets()[6]);
+    }
+
+    @Test
+    @DisplayName("Test getPercentileNanos() when quantile is out of range, should throw an exception.")
+    void testPercentileWhenQuantileIsOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileNanos(0.5));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> histogram.getPercentileNanos(1.5));
+    }
+
+}